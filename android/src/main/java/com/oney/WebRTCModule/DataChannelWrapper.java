@@ -1,22 +1,76 @@
 package com.oney.WebRTCModule;
 
+import android.os.SystemClock;
 import android.util.Base64;
 
 import androidx.annotation.Nullable;
 
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 
 import org.webrtc.DataChannel;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Timer;
+import java.util.TimerTask;
 
 class DataChannelWrapper implements DataChannel.Observer {
+    /**
+     * Messages up to this size are copied out of direct buffers into a reused
+     * scratch array; larger ones get a one-off array so a single big message
+     * doesn't pin its size in memory for the lifetime of the channel.
+     */
+    private static final int MAX_SCRATCH_SIZE = 64 * 1024;
+
     private final String reactTag;
     private final DataChannel mDataChannel;
     private final int peerConnectionId;
     private final WebRTCModule webRTCModule;
 
+    // Only touched from onMessage, which the DataChannel calls serially.
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Opt-in message batching, see {@link #setMessageBatching}. While enabled,
+     * inbound messages are accumulated and emitted as a single
+     * {@code dataChannelReceiveMessages} event once the window elapses or one of
+     * the thresholds is reached. Everything below is guarded by {@code batchLock};
+     * events are emitted while holding it so batches can't overtake each other.
+     */
+    private final Object batchLock = new Object();
+    private int batchWindowMs = 0;
+    private int batchMaxMessages;
+    private int batchMaxBytes;
+    @Nullable
+    private WritableArray pendingMessages;
+    private int pendingCount;
+    private int pendingBytes;
+    @Nullable
+    private TimerTask pendingFlush;
+
+    /**
+     * Opt-in throttling of {@code dataChannelDidChangeBufferedAmount}, see
+     * {@link #setBufferedAmountThrottling}. While enabled, crossings of the
+     * low threshold are always emitted and any other change is emitted at most
+     * {@code bufferedAmountMaxEventsPerSecond} times per second; the latest
+     * amount is emitted once the interval elapses if changes were suppressed.
+     * Guarded by {@code bufferedAmountLock}.
+     */
+    private final Object bufferedAmountLock = new Object();
+    private boolean bufferedAmountThrottled = false;
+    private long bufferedAmountLowThreshold;
+    private int bufferedAmountMaxEventsPerSecond;
+    /** 1 s / {@code bufferedAmountMaxEventsPerSecond}, in ns so rates above 1000 aren't truncated to 0. */
+    private long bufferedAmountMinIntervalNs;
+    private long lastBufferedAmountEventNs;
+    private long bufferedAmountEventsEmitted;
+    private long bufferedAmountEventsSuppressed;
+    private long bufferedAmountEventsSuppressedSinceLast;
+    @Nullable
+    private TimerTask pendingBufferedAmountEvent;
+
     DataChannelWrapper(WebRTCModule webRTCModule, int peerConnectionId, String reactTag, DataChannel dataChannel) {
         this.webRTCModule = webRTCModule;
         this.peerConnectionId = peerConnectionId;
@@ -47,8 +101,39 @@ class DataChannelWrapper implements DataChannel.Observer {
         return null;
     }
 
+    /**
+     * Enables or disables bufferedAmount event throttling for this channel.
+     *
+     * @param enabled whether to throttle; when disabled every change is emitted
+     * @param lowThreshold the bufferedAmountLowThreshold, crossing it downwards is always emitted
+     * @param maxEventsPerSecond cap for the other updates; 0 emits threshold crossings only
+     */
+    void setBufferedAmountThrottling(boolean enabled, long lowThreshold, int maxEventsPerSecond) {
+        synchronized (bufferedAmountLock) {
+            bufferedAmountThrottled = enabled;
+            bufferedAmountLowThreshold = Math.max(0, lowThreshold);
+            bufferedAmountMaxEventsPerSecond = Math.max(0, maxEventsPerSecond);
+            bufferedAmountMinIntervalNs = bufferedAmountMaxEventsPerSecond > 0
+                    ? 1_000_000_000L / bufferedAmountMaxEventsPerSecond
+                    : 0;
+            lastBufferedAmountEventNs = 0;
+            cancelTrailingBufferedAmountEventLocked();
+        }
+    }
+
     @Override
     public void onBufferedAmountChange(long amount) {
+        synchronized (bufferedAmountLock) {
+            if (bufferedAmountThrottled) {
+                // The observer is handed the amount *before* the change.
+                WritableMap params = throttledBufferedAmountEventLocked(amount);
+                if (params != null) {
+                    webRTCModule.sendEvent("dataChannelDidChangeBufferedAmount", params);
+                }
+                return;
+            }
+        }
+
         WritableMap params = Arguments.createMap();
         params.putString("reactTag", reactTag);
         params.putInt("peerConnectionId", peerConnectionId);
@@ -57,37 +142,235 @@ class DataChannelWrapper implements DataChannel.Observer {
         webRTCModule.sendEvent("dataChannelDidChangeBufferedAmount", params);
     }
 
-    @Override
-    public void onMessage(DataChannel.Buffer buffer) {
+    /**
+     * Returns the event to emit for a buffered amount change in throttled mode,
+     * or null if the change is suppressed.
+     */
+    @Nullable
+    private WritableMap throttledBufferedAmountEventLocked(long previousAmount) {
+        long amount = mDataChannel.bufferedAmount();
+        boolean crossedLow = previousAmount > bufferedAmountLowThreshold && amount <= bufferedAmountLowThreshold;
+
+        long now = SystemClock.elapsedRealtimeNanos();
+        boolean rateAllows = bufferedAmountMaxEventsPerSecond > 0
+                && now - lastBufferedAmountEventNs >= bufferedAmountMinIntervalNs;
+
+        if (!crossedLow && !rateAllows) {
+            bufferedAmountEventsSuppressed++;
+            bufferedAmountEventsSuppressedSinceLast++;
+            scheduleTrailingBufferedAmountEventLocked(now);
+            return null;
+        }
+
+        return bufferedAmountEventLocked(amount, crossedLow, now);
+    }
+
+    /**
+     * Makes sure the latest amount reaches JS once the interval elapses, so
+     * it isn't left with a stale value after a burst of suppressed changes.
+     * Threshold-only throttling (no rate) emits nothing but the crossings.
+     */
+    private void scheduleTrailingBufferedAmountEventLocked(long now) {
+        if (pendingBufferedAmountEvent != null || bufferedAmountMaxEventsPerSecond == 0) {
+            return;
+        }
+
+        long remainingNs = bufferedAmountMinIntervalNs - (now - lastBufferedAmountEventNs);
+        pendingBufferedAmountEvent = new TimerTask() {
+            @Override
+            public void run() {
+                synchronized (bufferedAmountLock) {
+                    if (pendingBufferedAmountEvent != this) {
+                        return;
+                    }
+                    pendingBufferedAmountEvent = null;
+                    if (!bufferedAmountThrottled || bufferedAmountEventsSuppressedSinceLast == 0) {
+                        return;
+                    }
+
+                    WritableMap params = bufferedAmountEventLocked(
+                            mDataChannel.bufferedAmount(), false, SystemClock.elapsedRealtimeNanos());
+                    webRTCModule.sendEvent("dataChannelDidChangeBufferedAmount", params);
+                }
+            }
+        };
+        // Rounded up, so the task doesn't land just before the interval elapses.
+        BatchTimer.INSTANCE.schedule(pendingBufferedAmountEvent, Math.max(1, (remainingNs + 999_999) / 1_000_000));
+    }
+
+    private void cancelTrailingBufferedAmountEventLocked() {
+        if (pendingBufferedAmountEvent != null) {
+            pendingBufferedAmountEvent.cancel();
+            pendingBufferedAmountEvent = null;
+        }
+    }
+
+    private WritableMap bufferedAmountEventLocked(long amount, boolean crossedLow, long now) {
+        cancelTrailingBufferedAmountEventLocked();
+        lastBufferedAmountEventNs = now;
+        bufferedAmountEventsEmitted++;
+
         WritableMap params = Arguments.createMap();
         params.putString("reactTag", reactTag);
         params.putInt("peerConnectionId", peerConnectionId);
+        params.putDouble("bufferedAmount", (double) amount);
+        params.putBoolean("lowThresholdCrossed", crossedLow);
+        params.putDouble("suppressedSinceLastEvent", (double) bufferedAmountEventsSuppressedSinceLast);
+        params.putDouble("suppressedEvents", (double) bufferedAmountEventsSuppressed);
+        params.putDouble("emittedEvents", (double) bufferedAmountEventsEmitted);
+        bufferedAmountEventsSuppressedSinceLast = 0;
+        return params;
+    }
 
+    @Override
+    public void onMessage(DataChannel.Buffer buffer) {
+        // Encode straight from the message bytes: heap buffers are read in place
+        // (honoring their offset, the backing array may be larger than the
+        // message) and direct buffers are copied once into the scratch array.
+        ByteBuffer payload = buffer.data;
+        int length = payload.remaining();
         byte[] bytes;
-        if (buffer.data.hasArray()) {
-            bytes = buffer.data.array();
+        int offset;
+        if (payload.hasArray()) {
+            bytes = payload.array();
+            offset = payload.arrayOffset() + payload.position();
         } else {
-            bytes = new byte[buffer.data.remaining()];
-            buffer.data.get(bytes);
+            bytes = length <= MAX_SCRATCH_SIZE ? scratchOfSize(length) : new byte[length];
+            offset = 0;
+            payload.get(bytes, 0, length);
         }
 
         String type;
         String data;
         if (buffer.binary) {
             type = "binary";
-            data = Base64.encodeToString(bytes, Base64.NO_WRAP);
+            data = Base64.encodeToString(bytes, offset, length, Base64.NO_WRAP);
         } else {
             type = "text";
-            data = new String(bytes, StandardCharsets.UTF_8);
+            data = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        synchronized (batchLock) {
+            if (batchWindowMs > 0) {
+                enqueueMessageLocked(type, data, length);
+                return;
+            }
         }
+
+        WritableMap params = Arguments.createMap();
+        params.putString("reactTag", reactTag);
+        params.putInt("peerConnectionId", peerConnectionId);
         params.putString("type", type);
         params.putString("data", data);
 
         webRTCModule.sendEvent("dataChannelReceiveMessage", params);
     }
 
+    /**
+     * Enables or disables message batching for this channel. Any messages
+     * already pending are flushed first, so ordering is preserved across
+     * configuration changes.
+     *
+     * @param windowMs how long to accumulate messages before emitting them; 0 disables batching
+     * @param maxMessages emit early once this many messages are pending
+     * @param maxBytes emit early once this many payload bytes are pending
+     */
+    void setMessageBatching(int windowMs, int maxMessages, int maxBytes) {
+        synchronized (batchLock) {
+            flushMessagesLocked();
+            batchWindowMs = Math.max(0, windowMs);
+            batchMaxMessages = maxMessages;
+            batchMaxBytes = maxBytes;
+        }
+    }
+
+    void flushMessages() {
+        synchronized (batchLock) {
+            flushMessagesLocked();
+        }
+    }
+
+    private void enqueueMessageLocked(String type, String data, int length) {
+        if (pendingMessages == null) {
+            pendingMessages = Arguments.createArray();
+            pendingFlush = new TimerTask() {
+                @Override
+                public void run() {
+                    flushMessages();
+                }
+            };
+            BatchTimer.INSTANCE.schedule(pendingFlush, batchWindowMs);
+        }
+
+        WritableMap message = Arguments.createMap();
+        message.putString("type", type);
+        message.putString("data", data);
+        pendingMessages.pushMap(message);
+        pendingCount++;
+        pendingBytes += length;
+
+        if ((batchMaxMessages > 0 && pendingCount >= batchMaxMessages)
+                || (batchMaxBytes > 0 && pendingBytes >= batchMaxBytes)) {
+            flushMessagesLocked();
+        }
+    }
+
+    private void flushMessagesLocked() {
+        if (pendingMessages == null) {
+            return;
+        }
+
+        if (pendingFlush != null) {
+            pendingFlush.cancel();
+            pendingFlush = null;
+        }
+
+        WritableMap params = Arguments.createMap();
+        params.putString("reactTag", reactTag);
+        params.putInt("peerConnectionId", peerConnectionId);
+        params.putArray("messages", pendingMessages);
+
+        pendingMessages = null;
+        pendingCount = 0;
+        pendingBytes = 0;
+
+        webRTCModule.sendEvent("dataChannelReceiveMessages", params);
+    }
+
+    /**
+     * Drops any batched messages and pending buffered amount update and turns
+     * batching and throttling off, so no timer can emit for a channel JS has
+     * torn down. Called once the
+     * observer is unregistered.
+     */
+    void dispose() {
+        synchronized (bufferedAmountLock) {
+            cancelTrailingBufferedAmountEventLocked();
+            bufferedAmountThrottled = false;
+        }
+        synchronized (batchLock) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel();
+                pendingFlush = null;
+            }
+            pendingMessages = null;
+            pendingCount = 0;
+            pendingBytes = 0;
+            batchWindowMs = 0;
+        }
+    }
+
+    private byte[] scratchOfSize(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        return scratch;
+    }
+
     @Override
     public void onStateChange() {
+        // Deliver whatever is still batched before JS learns the channel closed.
+        flushMessages();
+
         WritableMap params = Arguments.createMap();
         params.putString("reactTag", reactTag);
         params.putInt("peerConnectionId", peerConnectionId);
@@ -96,4 +379,12 @@ class DataChannelWrapper implements DataChannel.Observer {
 
         webRTCModule.sendEvent("dataChannelStateChanged", params);
     }
+
+    /**
+     * Timer shared by all channels for batch windows and trailing buffered
+     * amount updates, created on first use.
+     */
+    private static final class BatchTimer {
+        static final Timer INSTANCE = new Timer("DataChannelBatchTimer", true);
+    }
 }
@@ -0,0 +1,250 @@
+package com.oney.WebRTCModule;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batches native-to-JS events emitted within the same frame into a single
+ * <tt>eventBatch</tt> bridge call. The JS side (EventEmitter.ts) re-emits the
+ * events one by one, in order, so listeners are unaffected.
+ *
+ * <p>Each event type has a {@link Policy}:
+ * <ul>
+ *   <li>{@link Policy#APPEND}: queued in order (ICE candidates, messages, ...).</li>
+ *   <li>{@link Policy#LATEST}: state updates; a newer event for the same key
+ *       replaces the queued one in place.</li>
+ *   <li>{@link Policy#IMMEDIATE}: everything else. Pending events are flushed
+ *       first and the event is sent right away, so events which JS orders
+ *       against promise resolutions (tracks, signaling state, ...) are never
+ *       delayed.</li>
+ * </ul>
+ *
+ * <p>Batches are flushed on the next frame. Vsync callbacks stop while the
+ * screen is off or the app is in the background, so a delayed flush on the
+ * main looper backs the frame callback up.
+ *
+ * <p>Per-type counts are kept even when batching is disabled.
+ */
+class EventBus {
+    static final String BATCH_EVENT = "eventBatch";
+
+    enum Policy {
+        IMMEDIATE,
+        APPEND,
+        LATEST
+    }
+
+    interface Sink {
+        void emit(String eventName, @Nullable Object params);
+    }
+
+    /** Flushes pending events if no frame callback did within this time. */
+    private static final long FALLBACK_FLUSH_DELAY_MS = 32;
+
+    private static final Map<String, Policy> POLICIES = new HashMap<>();
+
+    static {
+        POLICIES.put("peerConnectionGotICECandidate", Policy.APPEND);
+        POLICIES.put("peerConnectionGotICECandidates", Policy.APPEND);
+        POLICIES.put("dataChannelReceiveMessage", Policy.APPEND);
+        POLICIES.put("dataChannelReceiveMessages", Policy.APPEND);
+        POLICIES.put("dataChannelDidChangeBufferedAmount", Policy.APPEND);
+        POLICIES.put("audioDeviceModuleSpeechActivity", Policy.APPEND);
+        POLICIES.put("mediaStreamTrackMuteChanged", Policy.LATEST);
+        POLICIES.put("videoTrackDimensionChanged", Policy.LATEST);
+        POLICIES.put("peerConnectionStatsSample", Policy.LATEST);
+        POLICIES.put("executorMetrics", Policy.LATEST);
+    }
+
+    private final Sink sink;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean enabled;
+
+    /** Guards {@link #pending}; never held while emitting. */
+    private final Object lock = new Object();
+    /** Held while emitting so batches and immediate events can't be reordered. */
+    private final Object emitLock = new Object();
+    private final List<PendingEvent> pending = new ArrayList<>();
+    /** Coalescing key -> index into {@link #pending}, for {@link Policy#LATEST} events. */
+    private final Map<String, Integer> latestIndex = new HashMap<>();
+    private boolean flushScheduled;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicLong batches = new AtomicLong();
+
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> flush();
+    private final Runnable fallbackFlush = this::flush;
+
+    EventBus(Sink sink) {
+        this.sink = sink;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            flush();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void post(String eventName, @Nullable ReadableMap params) {
+        Counters typeCounters = countersFor(eventName);
+        typeCounters.posted.incrementAndGet();
+
+        Policy policy = POLICIES.get(eventName);
+        if (!enabled || policy == null || policy == Policy.IMMEDIATE) {
+            synchronized (emitLock) {
+                flush();
+                typeCounters.emitted.incrementAndGet();
+                sink.emit(eventName, params);
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            PendingEvent event = new PendingEvent(eventName, params);
+            if (policy == Policy.LATEST) {
+                String key = coalescingKey(eventName, params);
+                Integer index = latestIndex.get(key);
+                if (index != null) {
+                    pending.set(index, event);
+                    typeCounters.coalesced.incrementAndGet();
+                    return;
+                }
+                latestIndex.put(key, pending.size());
+            }
+            pending.add(event);
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
+                mainHandler.postDelayed(fallbackFlush, FALLBACK_FLUSH_DELAY_MS);
+            }
+        }
+    }
+
+    /**
+     * Sends everything pending as a single batch.
+     */
+    void flush() {
+        synchronized (emitLock) {
+            WritableArray events;
+            synchronized (lock) {
+                if (flushScheduled) {
+                    flushScheduled = false;
+                    // Whichever of the frame callback and the fallback runs
+                    // first does the flush; a frame callback left behind
+                    // finds nothing (or the next batch) to send.
+                    mainHandler.removeCallbacks(fallbackFlush);
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                events = Arguments.createArray();
+                for (PendingEvent event : pending) {
+                    WritableMap entry = Arguments.createMap();
+                    entry.putString("name", event.name);
+                    entry.putMap("params", event.params);
+                    events.pushMap(entry);
+                    countersFor(event.name).emitted.incrementAndGet();
+                }
+                pending.clear();
+                latestIndex.clear();
+            }
+
+            // Producers may queue the next batch meanwhile; emitLock keeps
+            // concurrent flushes from reordering batches.
+            WritableMap batch = Arguments.createMap();
+            batch.putArray("events", events);
+            batches.incrementAndGet();
+            sink.emit(BATCH_EVENT, batch);
+        }
+    }
+
+    void resetStats() {
+        counters.clear();
+        batches.set(0);
+    }
+
+    /**
+     * @return <tt>{enabled, batches, events: {name: {posted, emitted, coalesced}}}</tt>
+     */
+    WritableMap getStats() {
+        WritableMap result = Arguments.createMap();
+        result.putBoolean("enabled", enabled);
+        result.putDouble("batches", batches.get());
+
+        WritableMap types = Arguments.createMap();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            WritableMap map = Arguments.createMap();
+            map.putDouble("posted", c.posted.get());
+            map.putDouble("emitted", c.emitted.get());
+            map.putDouble("coalesced", c.coalesced.get());
+            types.putMap(entry.getKey(), map);
+        }
+        result.putMap("events", types);
+        return result;
+    }
+
+    private Counters countersFor(String eventName) {
+        Counters c = counters.get(eventName);
+        if (c == null) {
+            c = counters.computeIfAbsent(eventName, k -> new Counters());
+        }
+        return c;
+    }
+
+    /**
+     * Events of one type describe the same piece of state when they share the
+     * peer connection and track, if any.
+     */
+    private static String coalescingKey(String eventName, @Nullable ReadableMap params) {
+        StringBuilder key = new StringBuilder(eventName);
+        if (params != null) {
+            if (params.hasKey("pcId")) {
+                key.append('/').append(params.getInt("pcId"));
+            }
+            if (params.hasKey("trackId")) {
+                key.append('/').append(params.getString("trackId"));
+            }
+        }
+        return key.toString();
+    }
+
+    private static final class PendingEvent {
+        final String name;
+        @Nullable
+        final ReadableMap params;
+
+        PendingEvent(String name, @Nullable ReadableMap params) {
+            this.name = name;
+            this.params = params;
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong posted = new AtomicLong();
+        final AtomicLong emitted = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+    }
+}
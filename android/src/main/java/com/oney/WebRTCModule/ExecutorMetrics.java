@@ -0,0 +1,217 @@
+package com.oney.WebRTCModule;
+
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Opt-in instrumentation for the {@link ThreadUtils} executor lanes: how many
+ * tasks are waiting, how long each task waited between being enqueued and
+ * starting, and how long it ran, broken down per operation name. For the
+ * synchronous methods it also records how long the JS thread was blocked
+ * waiting for the result.
+ *
+ * <p>While disabled {@link #wrap} hands the task back untouched, so the only
+ * cost left in production builds is one volatile read per submitted task.
+ */
+final class ExecutorMetrics {
+    /** Operation name used for tasks submitted without one. */
+    static final String UNNAMED_OPERATION = "other";
+
+    /** Upper bounds (exclusive) of the histogram buckets, in milliseconds. The last bucket is open-ended. */
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private volatile boolean enabled = false;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final AtomicLong blockedNs = new AtomicLong();
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a {@link Runnable} which records queueing and run time for the
+     * given task, or the task itself while metrics are disabled.
+     */
+    Runnable wrap(@Nullable String operation, Runnable runnable) {
+        if (!enabled) {
+            return runnable;
+        }
+
+        final OperationStats stats = statsFor(operation == null ? UNNAMED_OPERATION : operation);
+        final long enqueuedAtNs = SystemClock.elapsedRealtimeNanos();
+        onEnqueued();
+
+        return () -> {
+            long startedAtNs = SystemClock.elapsedRealtimeNanos();
+            queueDepth.decrementAndGet();
+            try {
+                runnable.run();
+            } finally {
+                long finishedAtNs = SystemClock.elapsedRealtimeNanos();
+                stats.record(startedAtNs - enqueuedAtNs, finishedAtNs - startedAtNs);
+            }
+        };
+    }
+
+    /**
+     * Records time a caller spent blocked waiting for a task of the given
+     * operation, see {@link ThreadUtils#awaitBlocking}.
+     */
+    void recordBlocked(@Nullable String operation, long durationNs) {
+        blockedNs.addAndGet(durationNs);
+        statsFor(operation == null ? UNNAMED_OPERATION : operation).blocked.record(durationNs);
+    }
+
+    /**
+     * Drops all collected samples. The current queue depth is left alone since
+     * it describes tasks which are still pending. Operations are zeroed rather
+     * than removed: tasks in flight hold on to their stats and record into
+     * them when they finish.
+     */
+    void reset() {
+        for (OperationStats stats : operations.values()) {
+            stats.reset();
+        }
+        blockedNs.set(0);
+        maxQueueDepth.set(queueDepth.get());
+    }
+
+    WritableMap toWritableMap() {
+        WritableMap result = Arguments.createMap();
+        result.putBoolean("enabled", enabled);
+        result.putInt("queueDepth", Math.max(0, queueDepth.get()));
+        result.putInt("maxQueueDepth", maxQueueDepth.get());
+        result.putDouble("blockedMs", blockedNs.get() / 1_000_000.0);
+
+        WritableArray bounds = Arguments.createArray();
+        for (long bound : BUCKET_BOUNDS_MS) {
+            bounds.pushDouble(bound);
+        }
+        result.putArray("histogramBoundsMs", bounds);
+
+        WritableMap ops = Arguments.createMap();
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            ops.putMap(entry.getKey(), entry.getValue().toWritableMap());
+        }
+        result.putMap("operations", ops);
+
+        return result;
+    }
+
+    private void onEnqueued() {
+        int depth = queueDepth.incrementAndGet();
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                break;
+            }
+        }
+    }
+
+    private OperationStats statsFor(String operation) {
+        OperationStats stats = operations.get(operation);
+        if (stats == null) {
+            stats = operations.computeIfAbsent(operation, k -> new OperationStats());
+        }
+        return stats;
+    }
+
+    private static int bucketFor(long durationNs) {
+        long durationMs = durationNs / 1_000_000;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (durationMs < BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    private static final class OperationStats {
+        final Histogram wait = new Histogram();
+        final Histogram run = new Histogram();
+        final Histogram blocked = new Histogram();
+
+        void record(long waitNs, long runNs) {
+            wait.record(waitNs);
+            run.record(runNs);
+        }
+
+        void reset() {
+            wait.reset();
+            run.reset();
+            blocked.reset();
+        }
+
+        WritableMap toWritableMap() {
+            WritableMap map = Arguments.createMap();
+            map.putDouble("count", run.count.get());
+            map.putMap("wait", wait.toWritableMap());
+            map.putMap("run", run.toWritableMap());
+            if (blocked.count.get() > 0) {
+                map.putMap("blocked", blocked.toWritableMap());
+            }
+            return map;
+        }
+    }
+
+    private static final class Histogram {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNs = new AtomicLong();
+        final AtomicLong maxNs = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+
+        void record(long durationNs) {
+            count.incrementAndGet();
+            totalNs.addAndGet(durationNs);
+            buckets.incrementAndGet(bucketFor(durationNs));
+
+            long max;
+            while (durationNs > (max = maxNs.get())) {
+                if (maxNs.compareAndSet(max, durationNs)) {
+                    break;
+                }
+            }
+        }
+
+        void reset() {
+            count.set(0);
+            totalNs.set(0);
+            maxNs.set(0);
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        WritableMap toWritableMap() {
+            long n = count.get();
+            WritableMap map = Arguments.createMap();
+            map.putDouble("avgMs", n == 0 ? 0 : totalNs.get() / (double) n / 1_000_000.0);
+            map.putDouble("maxMs", maxNs.get() / 1_000_000.0);
+
+            WritableArray histogram = Arguments.createArray();
+            for (int i = 0; i < buckets.length(); i++) {
+                histogram.pushDouble(buckets.get(i));
+            }
+            map.putArray("histogram", histogram);
+            return map;
+        }
+    }
+}
@@ -32,11 +32,11 @@ import com.oney.WebRTCModule.videoEffects.VideoFrameProcessor;
 import org.webrtc.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -59,7 +59,7 @@ public class GetUserMediaImpl {
      * {@link MediaStreamTrack}s created by {@code GetUserMediaImpl} mapped by
      * track ID.
      */
-    private final Map<String, TrackPrivate> tracks = new HashMap<>();
+    private final Map<String, TrackPrivate> tracks = new ConcurrentHashMap<>();
 
     private final WebRTCModule webRTCModule;
 
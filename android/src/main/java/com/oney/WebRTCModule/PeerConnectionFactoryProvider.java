@@ -17,8 +17,6 @@ import org.webrtc.audio.AudioDeviceModule;
 import org.webrtc.audio.JavaAudioDeviceModule;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -120,22 +118,31 @@ class PeerConnectionFactoryProvider {
         final SpeechActivityDetector speechDetector = options.speechActivityListener != null
                 ? new SpeechActivityDetector(options.speechActivityListener)
                 : null;
+        final ScreenAudioMixer screenAudioMixer = new ScreenAudioMixer();
 
         // Speaking-while-muted detection + screen-audio mixing, run on every captured mic buffer.
         builder.setAudioBufferCallback(
                 (audioBuffer, audioFormat, channelCount, sampleRate, bytesRead, captureTimeNs) -> {
                     // 1. Speech activity detection on raw mic data, BEFORE any mutation.
                     if (speechDetector != null) {
-                        speechDetector.processBuffer(audioBuffer, bytesRead);
+                        speechDetector.processBuffer(audioBuffer, bytesRead, sampleRate, channelCount, captureTimeNs);
                     }
                     // 2. Screen-audio mixing — mutates audioBuffer in place.
                     if (bytesRead > 0) {
-                        WebRTCModuleOptions.ScreenAudioBytesProvider provider =
-                                WebRTCModuleOptions.getInstance().screenAudioBytesProvider;
+                        WebRTCModuleOptions moduleOptions = WebRTCModuleOptions.getInstance();
+                        WebRTCModuleOptions.ScreenAudioBytesProvider provider = moduleOptions.screenAudioBytesProvider;
                         if (provider != null) {
-                            ByteBuffer screenBuffer = provider.getScreenAudioBytes(bytesRead);
+                            int screenRate = provider.getScreenAudioSampleRate();
+                            int screenChannels = provider.getScreenAudioChannelCount();
+                            ByteBuffer screenBuffer = provider.getScreenAudioBytes(screenAudioMixer.screenBytesFor(
+                                    bytesRead, sampleRate, channelCount, screenRate, screenChannels));
                             if (screenBuffer != null && screenBuffer.remaining() > 0) {
-                                mixScreenAudioIntoBuffer(audioBuffer, screenBuffer, bytesRead);
+                                screenAudioMixer.mix(audioBuffer, bytesRead, sampleRate, channelCount,
+                                        moduleOptions.micAudioMixGain, screenBuffer, screenRate, screenChannels,
+                                        moduleOptions.screenAudioMixGain);
+                            } else {
+                                // Don't interpolate across the gap.
+                                screenAudioMixer.reset();
                             }
                         }
                     }
@@ -173,44 +180,6 @@ class PeerConnectionFactoryProvider {
         return builder.createAudioDeviceModule();
     }
 
-    /**
-     * Mixes screen audio into the microphone buffer using PCM 16-bit additive mixing with clamping.
-     * Handles different buffer sizes safely: each buffer is read only within its own bounds. When one
-     * buffer is shorter, the other's samples pass through unmodified (mic samples stay as-is, or
-     * screen-only samples are written).
-     */
-    private static void mixScreenAudioIntoBuffer(ByteBuffer micBuffer, ByteBuffer screenBuffer, int bytesRead) {
-        micBuffer.position(0);
-        screenBuffer.position(0);
-
-        micBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        screenBuffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        ShortBuffer micShorts = micBuffer.asShortBuffer();
-        ShortBuffer screenShorts = screenBuffer.asShortBuffer();
-
-        int micSamples = Math.min(bytesRead / 2, micShorts.remaining());
-        int screenSamples = screenShorts.remaining();
-        int totalSamples = Math.max(micSamples, screenSamples);
-
-        for (int i = 0; i < totalSamples; i++) {
-            int sum;
-            if (i >= micSamples) {
-                // Screen-only: mic buffer is shorter — write screen sample directly
-                sum = screenShorts.get(i);
-            } else if (i >= screenSamples) {
-                // Mic-only: screen buffer is shorter — keep mic sample as-is
-                break;
-            } else {
-                // Both buffers have data — add samples
-                sum = micShorts.get(i) + screenShorts.get(i);
-            }
-            if (sum > Short.MAX_VALUE) sum = Short.MAX_VALUE;
-            if (sum < Short.MIN_VALUE) sum = Short.MIN_VALUE;
-            micShorts.put(i, (short) sum);
-        }
-    }
-
     private static int nativeOutputSampleRate(@NonNull Context context) {
         AudioManager am = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
         if (am != null) {
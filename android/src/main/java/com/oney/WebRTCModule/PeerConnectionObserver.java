@@ -7,6 +7,7 @@ import androidx.annotation.Nullable;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
@@ -18,6 +19,7 @@ import org.webrtc.MediaStream;
 import org.webrtc.MediaStreamTrack;
 import org.webrtc.PeerConnection;
 import org.webrtc.RTCStatsReport;
+import org.webrtc.RtpParameters;
 import org.webrtc.RtpReceiver;
 import org.webrtc.RtpSender;
 import org.webrtc.RtpTransceiver;
@@ -27,9 +29,16 @@ import org.webrtc.VideoTrack;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 class PeerConnectionObserver implements PeerConnection.Observer {
     private final static String TAG = WebRTCModule.TAG;
@@ -44,17 +53,47 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     final Map<String, MediaStreamTrack> remoteTracks;
     final VideoTrackAdapter videoTrackAdapters;
     final AudioTrackAdapter audioTrackAdapters;
+    private final StatsSampler statsSampler;
     private final WebRTCModule webRTCModule;
+    /**
+     * Stats id -> member -> last reported value, for delta-only filtered stats.
+     * getStats callbacks arrive on the signaling thread, hence the locking.
+     */
+    private final Map<String, Map<String, Object>> statsDeltaBaseline = new HashMap<>();
+
+    /**
+     * Trickle ICE batching, see {@link #setIceCandidateBatching(int)}. Only
+     * touched on this PeerConnection's executor lane.
+     */
+    private int iceCandidateBatchWindowMs = 0;
+    private WritableArray pendingIceCandidates;
+    private TimerTask pendingIceCandidatesFlush;
+
+    /**
+     * Transceiver id -> state last reported to JS, so negotiation results only
+     * carry what changed. Only touched on this PeerConnection's executor lane.
+     */
+    private final Map<String, TransceiverState> transceiverStates = new HashMap<>();
+
+    /**
+     * Transceiver id -> receiver track id, for the receiver tracks put in the
+     * module's {@link RemoteMediaIndex} as soon as their transceiver shows up
+     * (before onAddTrack signals them). Only touched on this PeerConnection's
+     * executor lane.
+     */
+    private final Map<String, String> receiverTrackIds = new HashMap<>();
 
     PeerConnectionObserver(WebRTCModule webRTCModule, int id) {
         this.webRTCModule = webRTCModule;
         this.id = id;
         this.dataChannels = new HashMap<>();
-        this.remoteStreamIds = new HashMap<>();
-        this.remoteStreams = new HashMap<>();
-        this.remoteTracks = new HashMap<>();
+        // Read from the shared lane too (stream / track lookups), hence concurrent.
+        this.remoteStreamIds = new ConcurrentHashMap<>();
+        this.remoteStreams = new ConcurrentHashMap<>();
+        this.remoteTracks = new ConcurrentHashMap<>();
         this.videoTrackAdapters = new VideoTrackAdapter(webRTCModule, id);
         this.audioTrackAdapters = new AudioTrackAdapter(webRTCModule, id);
+        this.statsSampler = new StatsSampler(webRTCModule, this, id);
     }
 
     PeerConnection getPeerConnection() {
@@ -74,6 +113,13 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     void dispose() {
         Log.d(TAG, "PeerConnection.dispose() for " + id);
 
+        statsSampler.stop();
+        if (pendingIceCandidatesFlush != null) {
+            pendingIceCandidatesFlush.cancel();
+            pendingIceCandidatesFlush = null;
+        }
+        pendingIceCandidates = null;
+
         // Remove track adapters for remote tracks
         for (MediaStreamTrack track : this.remoteTracks.values()) {
             if (track instanceof VideoTrack) {
@@ -97,6 +143,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
         for (DataChannelWrapper dcw : dataChannels.values()) {
             DataChannel dataChannel = dcw.getDataChannel();
             dataChannel.unregisterObserver();
+            dcw.dispose();
         }
 
         // At this point there should be no local MediaStreams in the associated
@@ -106,6 +153,18 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
         videoTrackAdapters.dispose();
 
+        RemoteMediaIndex remoteMediaIndex = webRTCModule.getRemoteMediaIndex();
+        for (String trackId : remoteTracks.keySet()) {
+            remoteMediaIndex.removeTrack(id, trackId);
+        }
+        for (String trackId : receiverTrackIds.values()) {
+            remoteMediaIndex.removeTrack(id, trackId);
+        }
+        receiverTrackIds.clear();
+        for (String streamReactTag : remoteStreams.keySet()) {
+            remoteMediaIndex.removeStream(id, streamReactTag);
+        }
+
         remoteStreamIds.clear();
         remoteStreams.clear();
         remoteTracks.clear();
@@ -121,7 +180,9 @@ class PeerConnectionObserver implements PeerConnection.Observer {
             return null;
         }
 
-        return peerConnection.addTransceiver(mediaType, init);
+        RtpTransceiver transceiver = peerConnection.addTransceiver(mediaType, init);
+        indexReceiverTrack(transceiver);
+        return transceiver;
     }
 
     RtpTransceiver addTransceiver(MediaStreamTrack track, RtpTransceiver.RtpTransceiverInit init) {
@@ -129,7 +190,25 @@ class PeerConnectionObserver implements PeerConnection.Observer {
             return null;
         }
 
-        return peerConnection.addTransceiver(track, init);
+        RtpTransceiver transceiver = peerConnection.addTransceiver(track, init);
+        indexReceiverTrack(transceiver);
+        return transceiver;
+    }
+
+    /**
+     * Puts the transceiver's receiver track in the module's index, so track
+     * lookups find it before onAddTrack. Must be called in the executor.
+     */
+    void indexReceiverTrack(@Nullable RtpTransceiver transceiver) {
+        if (transceiver == null) {
+            return;
+        }
+        MediaStreamTrack track = transceiver.getReceiver().track();
+        if (track == null) {
+            return;
+        }
+        receiverTrackIds.put(transceiver.getSender().id(), track.id());
+        webRTCModule.getRemoteMediaIndex().putTrack(id, track);
     }
 
     RtpSender getSender(String id) {
@@ -146,6 +225,110 @@ class PeerConnectionObserver implements PeerConnection.Observer {
         return null;
     }
 
+    /**
+     * Returns the ids of the receivers of all current transceivers, used to
+     * tell which transceivers a negotiation step created.
+     */
+    Set<String> getReceiverIds() {
+        List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
+        Set<String> receiverIds = new HashSet<>(transceivers.size() * 2);
+        for (RtpTransceiver transceiver : transceivers) {
+            receiverIds.add(transceiver.getReceiver().id());
+        }
+        return receiverIds;
+    }
+
+    /**
+     * Serializes what changed in the transceivers (current direction, mid,
+     * stopped state, sender / receiver parameters) since the previous call, for
+     * update after an SDP negotiation step. Transceivers without changes are
+     * left out, and so are unchanged fields of the ones which are included.
+     */
+    ReadableArray getTransceiverUpdates() {
+        WritableArray transceiverUpdates = Arguments.createArray();
+        List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
+        Set<String> seen = new HashSet<>(transceivers.size() * 2);
+
+        for (RtpTransceiver transceiver : transceivers) {
+            RtpSender sender = transceiver.getSender();
+            String transceiverId = sender.id();
+            seen.add(transceiverId);
+
+            TransceiverState state = transceiverStates.get(transceiverId);
+            boolean isNew = state == null;
+            if (isNew) {
+                state = new TransceiverState();
+                transceiverStates.put(transceiverId, state);
+                // Transceivers created by setRemoteDescription show up here first.
+                if (!receiverTrackIds.containsKey(transceiverId)) {
+                    indexReceiverTrack(transceiver);
+                }
+            }
+
+            WritableMap transceiverUpdate = Arguments.createMap();
+            boolean changed = isNew;
+
+            RtpTransceiver.RtpTransceiverDirection direction = transceiver.getCurrentDirection();
+            String currentDirection = direction == null ? null : SerializeUtils.serializeDirection(direction);
+            if (isNew || !Objects.equals(currentDirection, state.currentDirection)) {
+                if (currentDirection != null) {
+                    transceiverUpdate.putString("currentDirection", currentDirection);
+                }
+                state.currentDirection = currentDirection;
+                changed = true;
+            }
+
+            String mid = transceiver.getMid();
+            if (isNew || !Objects.equals(mid, state.mid)) {
+                transceiverUpdate.putString("mid", mid);
+                state.mid = mid;
+                changed = true;
+            }
+
+            boolean stopped = transceiver.isStopped();
+            if (isNew || stopped != state.stopped) {
+                transceiverUpdate.putBoolean("isStopped", stopped);
+                state.stopped = stopped;
+                changed = true;
+            }
+
+            RtpParameters senderParameters = sender.getParameters();
+            String senderFingerprint = SerializeUtils.rtpParametersFingerprint(senderParameters);
+            if (!senderFingerprint.equals(state.senderParameters)) {
+                transceiverUpdate.putMap(
+                        "senderRtpParameters", SerializeUtils.serializeRtpParameters(senderParameters));
+                state.senderParameters = senderFingerprint;
+                changed = true;
+            }
+
+            RtpParameters receiverParameters = transceiver.getReceiver().getParameters();
+            String receiverFingerprint = SerializeUtils.rtpParametersFingerprint(receiverParameters);
+            if (!receiverFingerprint.equals(state.receiverParameters)) {
+                transceiverUpdate.putMap(
+                        "receiverRtpParameters", SerializeUtils.serializeRtpParameters(receiverParameters));
+                state.receiverParameters = receiverFingerprint;
+                changed = true;
+            }
+
+            if (changed) {
+                transceiverUpdate.putString("transceiverId", transceiverId);
+                transceiverUpdates.pushMap(transceiverUpdate);
+            }
+        }
+
+        transceiverStates.keySet().retainAll(seen);
+        Iterator<Map.Entry<String, String>> receiverTracks = receiverTrackIds.entrySet().iterator();
+        while (receiverTracks.hasNext()) {
+            Map.Entry<String, String> entry = receiverTracks.next();
+            if (!seen.contains(entry.getKey())) {
+                webRTCModule.getRemoteMediaIndex().removeTrack(id, entry.getValue());
+                receiverTracks.remove();
+            }
+        }
+
+        return transceiverUpdates;
+    }
+
     RtpTransceiver getTransceiver(String id) {
         if (this.peerConnection == null) {
             return null;
@@ -160,6 +343,15 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     }
 
     WritableMap createDataChannel(String label, ReadableMap config) {
+        return createDataChannel(UUID.randomUUID().toString(), label, config);
+    }
+
+    /**
+     * Creates a data channel known to JS by the given react tag, or returns
+     * {@code null} if it couldn't be created.
+     */
+    @Nullable
+    WritableMap createDataChannel(String reactTag, String label, ReadableMap config) {
         DataChannel.Init init = new DataChannel.Init();
         if (config != null) {
             if (config.hasKey("id")) {
@@ -185,7 +377,6 @@ class PeerConnectionObserver implements PeerConnection.Observer {
         if (dataChannel == null) {
             return null;
         }
-        final String reactTag = UUID.randomUUID().toString();
         DataChannelWrapper dcw = new DataChannelWrapper(webRTCModule, id, reactTag, dataChannel);
         dataChannels.put(reactTag, dcw);
         dataChannel.registerObserver(dcw);
@@ -224,9 +415,55 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
         DataChannel dataChannel = dcw.getDataChannel();
         dataChannel.unregisterObserver();
+        dcw.dispose();
         dataChannels.remove(reactTag);
     }
 
+    void dataChannelSetMessageBatching(String reactTag, ReadableMap options) {
+        DataChannelWrapper dcw = dataChannels.get(reactTag);
+        if (dcw == null) {
+            Log.d(TAG, "dataChannelSetMessageBatching() dataChannel is null");
+            return;
+        }
+
+        int windowMs = 0;
+        int maxMessages = 256;
+        int maxBytes = 256 * 1024;
+        if (options != null) {
+            if (options.hasKey("windowMs")) {
+                windowMs = options.getInt("windowMs");
+            }
+            if (options.hasKey("maxMessages")) {
+                maxMessages = options.getInt("maxMessages");
+            }
+            if (options.hasKey("maxBytes")) {
+                maxBytes = options.getInt("maxBytes");
+            }
+        }
+        dcw.setMessageBatching(windowMs, maxMessages, maxBytes);
+    }
+
+    void dataChannelSetBufferedAmountThrottling(String reactTag, ReadableMap options) {
+        DataChannelWrapper dcw = dataChannels.get(reactTag);
+        if (dcw == null) {
+            Log.d(TAG, "dataChannelSetBufferedAmountThrottling() dataChannel is null");
+            return;
+        }
+
+        boolean enabled = options != null && options.hasKey("enabled") && options.getBoolean("enabled");
+        long lowThreshold = 0;
+        int maxEventsPerSecond = 0;
+        if (options != null) {
+            if (options.hasKey("lowThreshold")) {
+                lowThreshold = (long) options.getDouble("lowThreshold");
+            }
+            if (options.hasKey("maxEventsPerSecond")) {
+                maxEventsPerSecond = options.getInt("maxEventsPerSecond");
+            }
+        }
+        dcw.setBufferedAmountThrottling(enabled, lowThreshold, maxEventsPerSecond);
+    }
+
     void dataChannelSend(String reactTag, String data, String type) {
         DataChannelWrapper dcw = dataChannels.get(reactTag);
         if (dcw == null) {
@@ -234,6 +471,51 @@ class PeerConnectionObserver implements PeerConnection.Observer {
             return;
         }
 
+        DataChannel.Buffer buffer = createDataChannelBuffer(data, type);
+        if (buffer == null) {
+            return;
+        }
+        dcw.getDataChannel().send(buffer);
+    }
+
+    /**
+     * Sends the given messages in order, stopping early once the channel's
+     * buffered amount reaches {@code highWaterMark} (if positive) or a send fails.
+     * The result tells JS how many messages were accepted, so the producer can
+     * wait for {@code bufferedamountlow} before handing over the rest.
+     */
+    WritableMap dataChannelSendBatch(String reactTag, ReadableArray messages, double highWaterMark) {
+        WritableMap result = Arguments.createMap();
+        DataChannelWrapper dcw = dataChannels.get(reactTag);
+        if (dcw == null) {
+            Log.d(TAG, "dataChannelSendBatch() dataChannel is null");
+            result.putInt("sent", 0);
+            result.putDouble("bufferedAmount", 0);
+            return result;
+        }
+
+        DataChannel dataChannel = dcw.getDataChannel();
+        int sent = 0;
+        for (int i = 0, size = messages.size(); i < size; i++) {
+            if (highWaterMark > 0 && dataChannel.bufferedAmount() >= highWaterMark) {
+                break;
+            }
+
+            ReadableMap message = messages.getMap(i);
+            DataChannel.Buffer buffer = createDataChannelBuffer(message.getString("data"), message.getString("type"));
+            if (buffer == null || !dataChannel.send(buffer)) {
+                break;
+            }
+            sent++;
+        }
+
+        result.putInt("sent", sent);
+        result.putDouble("bufferedAmount", (double) dataChannel.bufferedAmount());
+        return result;
+    }
+
+    @Nullable
+    private static DataChannel.Buffer createDataChannelBuffer(String data, String type) {
         byte[] byteArray;
         if (type.equals("text")) {
             byteArray = data.getBytes(StandardCharsets.UTF_8);
@@ -241,17 +523,32 @@ class PeerConnectionObserver implements PeerConnection.Observer {
             byteArray = Base64.decode(data, Base64.NO_WRAP);
         } else {
             Log.e(TAG, "Unsupported data type: " + type);
-            return;
+            return null;
         }
         ByteBuffer byteBuffer = ByteBuffer.wrap(byteArray);
-        DataChannel.Buffer buffer = new DataChannel.Buffer(byteBuffer, type.equals("binary"));
-        dcw.getDataChannel().send(buffer);
+        return new DataChannel.Buffer(byteBuffer, type.equals("binary"));
     }
 
     void getStats(Promise promise) {
         peerConnection.getStats(rtcStatsReport -> promise.resolve(StringUtils.statsToJSON(rtcStatsReport)));
     }
 
+    void setStatsSampling(int intervalMs, @Nullable ReadableMap options) {
+        boolean quality = options != null && options.hasKey("quality") && options.getBoolean("quality");
+        statsSampler.start(intervalMs, quality);
+    }
+
+    void getFilteredStats(@Nullable ReadableMap options, Promise promise) {
+        peerConnection.getStats(rtcStatsReport -> {
+            String json;
+            synchronized (statsDeltaBaseline) {
+                StatsFilter filter = StatsFilter.fromOptions(options, statsDeltaBaseline);
+                json = StringUtils.statsToJSON(rtcStatsReport, filter);
+            }
+            promise.resolve(json);
+        });
+    }
+
     public void receiverGetStats(String receiverId, Promise promise) {
         RtpReceiver targetReceiver = null;
         for (RtpReceiver r : peerConnection.getReceivers()) {
@@ -294,37 +591,94 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     public void onIceCandidate(final IceCandidate candidate) {
         Log.d(TAG, "onIceCandidate");
 
-        ThreadUtils.runOnExecutor(() -> {
-            WritableMap params = Arguments.createMap();
-            params.putInt("pcId", id);
-
+        ThreadUtils.runOnExecutor(id, "onIceCandidate", () -> {
             WritableMap candidateParams = Arguments.createMap();
             candidateParams.putInt("sdpMLineIndex", candidate.sdpMLineIndex);
             candidateParams.putString("sdpMid", candidate.sdpMid);
             candidateParams.putString("candidate", candidate.sdp);
 
-            params.putMap("candidate", candidateParams);
-
-            SessionDescription newSdp = peerConnection.getLocalDescription();
-            WritableMap newSdpMap = Arguments.createMap();
-
-            // Can happen when doing a rollback.
-            if (newSdp != null) {
-                newSdpMap.putString("type", newSdp.type.canonicalForm());
-                newSdpMap.putString("sdp", newSdp.description);
+            if (iceCandidateBatchWindowMs > 0) {
+                queueIceCandidate(candidateParams);
+                return;
             }
-            params.putMap("sdp", newSdpMap);
+
+            WritableMap params = Arguments.createMap();
+            params.putInt("pcId", id);
+            params.putMap("candidate", candidateParams);
+            params.putMap("sdp", localDescriptionMap());
 
             webRTCModule.sendEvent("peerConnectionGotICECandidate", params);
         });
     }
 
+    /**
+     * Enables batching of trickled ICE candidates: candidates gathered within
+     * <tt>windowMs</tt> of the first one are sent as a single
+     * peerConnectionGotICECandidates event, which carries the local
+     * description once instead of once per candidate. 0 disables batching.
+     * Must be called on this PeerConnection's executor lane.
+     */
+    void setIceCandidateBatching(int windowMs) {
+        iceCandidateBatchWindowMs = Math.max(0, windowMs);
+        if (iceCandidateBatchWindowMs == 0) {
+            flushIceCandidates();
+        }
+    }
+
+    private void queueIceCandidate(WritableMap candidateParams) {
+        if (pendingIceCandidates == null) {
+            pendingIceCandidates = Arguments.createArray();
+            pendingIceCandidatesFlush = new TimerTask() {
+                @Override
+                public void run() {
+                    ThreadUtils.runOnExecutor(id, "flushIceCandidates", () -> {
+                        if (pendingIceCandidatesFlush == this) {
+                            flushIceCandidates();
+                        }
+                    });
+                }
+            };
+            IceBatchTimer.INSTANCE.schedule(pendingIceCandidatesFlush, iceCandidateBatchWindowMs);
+        }
+        pendingIceCandidates.pushMap(candidateParams);
+    }
+
+    private void flushIceCandidates() {
+        if (pendingIceCandidatesFlush != null) {
+            pendingIceCandidatesFlush.cancel();
+            pendingIceCandidatesFlush = null;
+        }
+        if (pendingIceCandidates == null) {
+            return;
+        }
+
+        WritableMap params = Arguments.createMap();
+        params.putInt("pcId", id);
+        params.putArray("candidates", pendingIceCandidates);
+        params.putMap("sdp", localDescriptionMap());
+        pendingIceCandidates = null;
+
+        webRTCModule.sendEvent("peerConnectionGotICECandidates", params);
+    }
+
+    private WritableMap localDescriptionMap() {
+        SessionDescription newSdp = peerConnection.getLocalDescription();
+        WritableMap newSdpMap = Arguments.createMap();
+
+        // Can happen when doing a rollback.
+        if (newSdp != null) {
+            newSdpMap.putString("type", newSdp.type.canonicalForm());
+            newSdpMap.putString("sdp", newSdp.description);
+        }
+        return newSdpMap;
+    }
+
     @Override
     public void onIceCandidatesRemoved(final IceCandidate[] candidates) {}
 
     @Override
     public void onIceConnectionChange(PeerConnection.IceConnectionState iceConnectionState) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onIceConnectionChange", () -> {
             WritableMap params = Arguments.createMap();
             params.putInt("pcId", id);
             params.putString("iceConnectionState", iceConnectionStateString(iceConnectionState));
@@ -334,7 +688,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
     @Override
     public void onConnectionChange(PeerConnection.PeerConnectionState peerConnectionState) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onConnectionChange", () -> {
             WritableMap params = Arguments.createMap();
             params.putInt("pcId", id);
             params.putString("connectionState", peerConnectionStateString(peerConnectionState));
@@ -350,21 +704,15 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     public void onIceGatheringChange(PeerConnection.IceGatheringState iceGatheringState) {
         Log.d(TAG, "onIceGatheringChange" + iceGatheringState.name());
 
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onIceGatheringChange", () -> {
             WritableMap params = Arguments.createMap();
             params.putInt("pcId", id);
             params.putString("iceGatheringState", iceGatheringStateString(iceGatheringState));
 
             if (iceGatheringState == PeerConnection.IceGatheringState.COMPLETE) {
-                SessionDescription newSdp = peerConnection.getLocalDescription();
-                WritableMap newSdpMap = Arguments.createMap();
-
-                // Can happen when doing a rollback.
-                if (newSdp != null) {
-                    newSdpMap.putString("type", newSdp.type.canonicalForm());
-                    newSdpMap.putString("sdp", newSdp.description);
-                }
-                params.putMap("sdp", newSdpMap);
+                // Candidates must reach JS before the end-of-candidates.
+                flushIceCandidates();
+                params.putMap("sdp", localDescriptionMap());
             }
             webRTCModule.sendEvent("peerConnectionIceGatheringChanged", params);
         });
@@ -372,7 +720,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
     @Override
     public void onDataChannel(DataChannel dataChannel) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onDataChannel", () -> {
             final String reactTag = UUID.randomUUID().toString();
             DataChannelWrapper dcw = new DataChannelWrapper(webRTCModule, id, reactTag, dataChannel);
             dataChannels.put(reactTag, dcw);
@@ -403,7 +751,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
     @Override
     public void onRenegotiationNeeded() {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onRenegotiationNeeded", () -> {
             WritableMap params = Arguments.createMap();
             params.putInt("pcId", id);
             webRTCModule.sendEvent("peerConnectionOnRenegotiationNeeded", params);
@@ -412,7 +760,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
     @Override
     public void onSignalingChange(PeerConnection.SignalingState signalingState) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onSignalingChange", () -> {
             WritableMap params = Arguments.createMap();
             params.putInt("pcId", id);
             params.putString("signalingState", signalingStateString(signalingState));
@@ -428,7 +776,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
     public void onAddTrack(final RtpReceiver receiver, final MediaStream[] mediaStreams) {
         Log.d(TAG, "onAddTrack");
 
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onAddTrack", () -> {
             RtpTransceiver transceiver = null;
             for (RtpTransceiver t : this.peerConnection.getTransceivers()) {
                 if (Objects.equals(t.getReceiver().id(), receiver.id())) {
@@ -458,6 +806,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
                 }
                 remoteTracks.put(track.id(), track);
             }
+            webRTCModule.getRemoteMediaIndex().putTrack(id, track);
 
             WritableMap params = Arguments.createMap();
             WritableArray streams = Arguments.createArray();
@@ -473,6 +822,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
 
                 // Make sure the stored stream is updated in case we get a new reference.
                 remoteStreams.put(streamReactTag, stream);
+                webRTCModule.getRemoteMediaIndex().putStream(id, streamReactTag, stream);
 
                 streams.pushMap(SerializeUtils.serializeStream(id, streamReactTag, stream));
             }
@@ -501,7 +851,7 @@ class PeerConnectionObserver implements PeerConnection.Observer {
      */
     @Override
     public void onRemoveTrack(RtpReceiver receiver) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "onRemoveTrack", () -> {
             // Tear down track adapters so a subsequent onAddTrack with the
             // same trackId (SFU participant rejoin) creates a fresh adapter
             // on the new MediaStreamTrack object. Without this, the old sink
@@ -518,6 +868,10 @@ class PeerConnectionObserver implements PeerConnection.Observer {
                     audioTrackAdapters.removeAdapter((AudioTrack) track);
                 }
                 remoteTracks.remove(trackId);
+                // Still reachable through its receiver, unless the transceiver goes away.
+                if (!receiverTrackIds.containsValue(trackId)) {
+                    webRTCModule.getRemoteMediaIndex().removeTrack(id, trackId);
+                }
             }
 
             WritableMap params = Arguments.createMap();
@@ -607,4 +961,24 @@ class PeerConnectionObserver implements PeerConnection.Observer {
         }
         return null;
     }
+
+    /**
+     * Timer shared by all PeerConnections for ICE candidate batch windows,
+     * created on first use.
+     */
+    private static final class IceBatchTimer {
+        static final Timer INSTANCE = new Timer("IceCandidateBatchTimer", true);
+    }
+
+    /**
+     * Transceiver state as last reported to JS. RtpParameters are kept as
+     * fingerprints, see {@link SerializeUtils#rtpParametersFingerprint}.
+     */
+    private static final class TransceiverState {
+        String currentDirection;
+        String mid;
+        boolean stopped;
+        String senderParameters;
+        String receiverParameters;
+    }
 }
@@ -0,0 +1,388 @@
+package com.oney.WebRTCModule;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Derives a MOS-like quality score (1 to 4.5) and degradation reasons for each
+ * inbound track from consecutive stats reports.
+ *
+ * <p>Every report adds one sample per track to a fixed-size sliding window;
+ * scores are computed over the whole window so a single bad interval doesn't
+ * make them jump around. Per-track windows are allocated once, when a track
+ * is first seen, and reused for every later sample.
+ *
+ * <p>Audio uses a simplified ITU-T G.107 E-model (delay and loss impairments);
+ * video starts from the top score and is penalized for freezes, dropped
+ * frames, low frame rate, loss and delay.
+ */
+class QualityScorer {
+    static final int DEFAULT_WINDOW_SIZE = 5;
+
+    static final int REASON_PACKET_LOSS = 1;
+    static final int REASON_JITTER = 1 << 1;
+    static final int REASON_ROUND_TRIP_TIME = 1 << 2;
+    static final int REASON_CONCEALMENT = 1 << 3;
+    static final int REASON_FREEZES = 1 << 4;
+    static final int REASON_FRAMES_DROPPED = 1 << 5;
+    static final int REASON_LOW_FRAME_RATE = 1 << 6;
+
+    private static final String[] REASON_NAMES = {
+        "packetLoss", "jitter", "roundTripTime", "concealment", "freezes", "framesDropped", "lowFrameRate"
+    };
+
+    static final double MAX_SCORE = 4.5;
+    static final double MIN_SCORE = 1.0;
+
+    // Thresholds for reporting a degradation reason.
+    private static final double LOSS_THRESHOLD_PCT = 3;
+    private static final double JITTER_THRESHOLD_MS = 30;
+    private static final double RTT_THRESHOLD_MS = 300;
+    private static final double CONCEALMENT_THRESHOLD_PCT = 3;
+    private static final double FREEZE_THRESHOLD_PCT = 2;
+    private static final double DROPPED_THRESHOLD_PCT = 5;
+    private static final double LOW_FRAME_RATE = 10;
+
+    private final int windowSize;
+
+    /** Track id -> window, i.e. the trackIdentifier of the inbound-rtp stats. */
+    private final Map<String, TrackWindow> tracks = new HashMap<>();
+    private int generation;
+
+    QualityScorer() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    QualityScorer(int windowSize) {
+        this.windowSize = Math.max(1, windowSize);
+    }
+
+    /**
+     * Adds a sample for each inbound track in the report.
+     *
+     * @param roundTripTimeSec the current RTT of the selected candidate pair,
+     *                         or a negative value if unknown
+     */
+    void update(RTCStatsReport report, double roundTripTimeSec) {
+        generation++;
+
+        for (RTCStats stats : report.getStatsMap().values()) {
+            if (!"inbound-rtp".equals(stats.getType())) {
+                continue;
+            }
+
+            Map<String, Object> members = stats.getMembers();
+            Object trackId = members.get("trackIdentifier");
+            if (!(trackId instanceof String)) {
+                continue;
+            }
+
+            TrackWindow window = tracks.get(trackId);
+            if (window == null) {
+                window = new TrackWindow((String) trackId, "video".equals(members.get("kind")), windowSize);
+                tracks.put((String) trackId, window);
+            }
+            window.generation = generation;
+            window.add(stats.getTimestampUs(), members, roundTripTimeSec);
+        }
+
+        // Forget tracks which are no longer reported.
+        Iterator<TrackWindow> it = tracks.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().generation != generation) {
+                it.remove();
+            }
+        }
+    }
+
+    void reset() {
+        tracks.clear();
+    }
+
+    /**
+     * @return <tt>{score, reasons, tracks: [{trackId, kind, score, reasons}]}</tt>
+     * where the overall score is the worst track score.
+     */
+    WritableMap toWritableMap() {
+        WritableMap result = Arguments.createMap();
+        WritableArray trackScores = Arguments.createArray();
+        double worst = MAX_SCORE;
+        int allReasons = 0;
+
+        for (TrackWindow window : tracks.values()) {
+            if (!window.hasScore()) {
+                continue;
+            }
+            double score = window.score();
+            int reasons = window.reasons();
+            worst = Math.min(worst, score);
+            allReasons |= reasons;
+
+            WritableMap map = Arguments.createMap();
+            map.putString("trackId", window.trackId);
+            map.putString("kind", window.video ? "video" : "audio");
+            map.putDouble("score", score);
+            map.putArray("reasons", reasonsToArray(reasons));
+            trackScores.pushMap(map);
+        }
+
+        result.putDouble("score", worst);
+        result.putArray("reasons", reasonsToArray(allReasons));
+        result.putArray("tracks", trackScores);
+        return result;
+    }
+
+    private static WritableArray reasonsToArray(int reasons) {
+        WritableArray array = Arguments.createArray();
+        for (int i = 0; i < REASON_NAMES.length; i++) {
+            if ((reasons & (1 << i)) != 0) {
+                array.pushString(REASON_NAMES[i]);
+            }
+        }
+        return array;
+    }
+
+    /**
+     * MOS from the E-model rating factor R (ITU-T G.107 Annex B).
+     */
+    static double mosFromR(double r) {
+        if (r <= 0) {
+            return MIN_SCORE;
+        }
+        if (r >= 100) {
+            return MAX_SCORE;
+        }
+        return clamp(1 + 0.035 * r + 7e-6 * r * (r - 60) * (100 - r));
+    }
+
+    static double audioScore(double oneWayDelayMs, double lossPct) {
+        double delayImpairment = 0.024 * oneWayDelayMs;
+        if (oneWayDelayMs > 177.3) {
+            delayImpairment += 0.11 * (oneWayDelayMs - 177.3);
+        }
+        // Packet-loss robust codec (Opus with PLC): Ie = 0, Bpl = 10.
+        double lossImpairment = 95 * lossPct / (lossPct + 10);
+        return mosFromR(93.2 - delayImpairment - lossImpairment);
+    }
+
+    static double videoScore(double freezePct, double droppedPct, double frameRate, double lossPct,
+            double oneWayDelayMs) {
+        double penalty = freezePct * 0.1 + droppedPct * 0.03 + lossPct * 0.05;
+        if (frameRate < LOW_FRAME_RATE) {
+            penalty += (LOW_FRAME_RATE - frameRate) * 0.1;
+        }
+        if (oneWayDelayMs > 150) {
+            penalty += (oneWayDelayMs - 150) * 0.004;
+        }
+        return clamp(MAX_SCORE - penalty);
+    }
+
+    private static double clamp(double score) {
+        return Math.max(MIN_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    /**
+     * Ring buffer of per-interval deltas for one track.
+     */
+    private static final class TrackWindow {
+        final String trackId;
+        final boolean video;
+        int generation;
+
+        // Cumulative counters from the previous report.
+        private boolean hasPrevious;
+        private long lastTimestampUs;
+        private double lastPacketsReceived;
+        private double lastPacketsLost;
+        private double lastConcealedSamples;
+        private double lastTotalSamples;
+        private double lastFramesReceived;
+        private double lastFramesDropped;
+        private double lastFramesDecoded;
+        private double lastFreezeDuration;
+
+        // Per-interval samples.
+        private final double[] seconds;
+        private final double[] expectedPackets;
+        private final double[] lostPackets;
+        private final double[] concealedSamples;
+        private final double[] totalSamples;
+        private final double[] framesReceived;
+        private final double[] framesDropped;
+        private final double[] framesDecoded;
+        private final double[] freezeSeconds;
+        private final double[] jitterMs;
+        private final double[] rttMs;
+        private int next;
+        private int count;
+
+        TrackWindow(String trackId, boolean video, int windowSize) {
+            this.trackId = trackId;
+            this.video = video;
+            seconds = new double[windowSize];
+            expectedPackets = new double[windowSize];
+            lostPackets = new double[windowSize];
+            concealedSamples = new double[windowSize];
+            totalSamples = new double[windowSize];
+            framesReceived = new double[windowSize];
+            framesDropped = new double[windowSize];
+            framesDecoded = new double[windowSize];
+            freezeSeconds = new double[windowSize];
+            jitterMs = new double[windowSize];
+            rttMs = new double[windowSize];
+        }
+
+        void add(long timestampUs, Map<String, Object> members, double roundTripTimeSec) {
+            double packetsReceived = number(members.get("packetsReceived"));
+            double packetsLost = number(members.get("packetsLost"));
+            double concealed = number(members.get("concealedSamples"));
+            double total = number(members.get("totalSamplesReceived"));
+            double received = number(members.get("framesReceived"));
+            double dropped = number(members.get("framesDropped"));
+            double decoded = number(members.get("framesDecoded"));
+            double freezeDuration = number(members.get("totalFreezesDuration"));
+
+            if (hasPrevious && timestampUs > lastTimestampUs) {
+                int i = next;
+                double lost = Math.max(0, packetsLost - lastPacketsLost);
+                seconds[i] = (timestampUs - lastTimestampUs) / 1_000_000.0;
+                lostPackets[i] = lost;
+                expectedPackets[i] = Math.max(0, packetsReceived - lastPacketsReceived) + lost;
+                concealedSamples[i] = Math.max(0, concealed - lastConcealedSamples);
+                totalSamples[i] = Math.max(0, total - lastTotalSamples);
+                framesReceived[i] = Math.max(0, received - lastFramesReceived);
+                framesDropped[i] = Math.max(0, dropped - lastFramesDropped);
+                framesDecoded[i] = Math.max(0, decoded - lastFramesDecoded);
+                freezeSeconds[i] = Math.max(0, freezeDuration - lastFreezeDuration);
+                jitterMs[i] = number(members.get("jitter")) * 1000;
+                rttMs[i] = roundTripTimeSec >= 0 ? roundTripTimeSec * 1000 : 0;
+
+                next = (next + 1) % seconds.length;
+                count = Math.min(count + 1, seconds.length);
+            }
+
+            hasPrevious = true;
+            lastTimestampUs = timestampUs;
+            lastPacketsReceived = packetsReceived;
+            lastPacketsLost = packetsLost;
+            lastConcealedSamples = concealed;
+            lastTotalSamples = total;
+            lastFramesReceived = received;
+            lastFramesDropped = dropped;
+            lastFramesDecoded = decoded;
+            lastFreezeDuration = freezeDuration;
+        }
+
+        boolean hasScore() {
+            return count > 0;
+        }
+
+        private double sum(double[] values) {
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        private double lossPct() {
+            double expected = sum(expectedPackets);
+            return expected > 0 ? sum(lostPackets) * 100 / expected : 0;
+        }
+
+        private double concealmentPct() {
+            double total = sum(totalSamples);
+            return total > 0 ? sum(concealedSamples) * 100 / total : 0;
+        }
+
+        private double freezePct() {
+            double elapsed = sum(seconds);
+            return elapsed > 0 ? sum(freezeSeconds) * 100 / elapsed : 0;
+        }
+
+        private double droppedPct() {
+            double received = sum(framesReceived);
+            return received > 0 ? sum(framesDropped) * 100 / received : 0;
+        }
+
+        private double frameRate() {
+            double elapsed = sum(seconds);
+            return elapsed > 0 ? sum(framesDecoded) / elapsed : 0;
+        }
+
+        private double jitterMs() {
+            return sum(jitterMs) / count;
+        }
+
+        private double rttMs() {
+            return sum(rttMs) / count;
+        }
+
+        private double oneWayDelayMs() {
+            // Half the RTT, plus the jitter buffer which is typically ~2x jitter.
+            return rttMs() / 2 + jitterMs() * 2;
+        }
+
+        /**
+         * Whether the track received any media during the window, so a paused
+         * sender doesn't read as a frozen video.
+         */
+        private boolean isReceiving() {
+            return video ? sum(framesReceived) > 0 : sum(expectedPackets) > 0;
+        }
+
+        double score() {
+            if (!isReceiving()) {
+                return MAX_SCORE;
+            }
+            if (video) {
+                return videoScore(freezePct(), droppedPct(), frameRate(), lossPct(), oneWayDelayMs());
+            }
+            double effectiveLoss = Math.max(lossPct(), concealmentPct());
+            return audioScore(oneWayDelayMs(), effectiveLoss);
+        }
+
+        int reasons() {
+            if (!isReceiving()) {
+                return 0;
+            }
+
+            int reasons = 0;
+            if (lossPct() > LOSS_THRESHOLD_PCT) {
+                reasons |= REASON_PACKET_LOSS;
+            }
+            if (jitterMs() > JITTER_THRESHOLD_MS) {
+                reasons |= REASON_JITTER;
+            }
+            if (rttMs() > RTT_THRESHOLD_MS) {
+                reasons |= REASON_ROUND_TRIP_TIME;
+            }
+            if (video) {
+                if (freezePct() > FREEZE_THRESHOLD_PCT) {
+                    reasons |= REASON_FREEZES;
+                }
+                if (droppedPct() > DROPPED_THRESHOLD_PCT) {
+                    reasons |= REASON_FRAMES_DROPPED;
+                }
+                if (frameRate() < LOW_FRAME_RATE) {
+                    reasons |= REASON_LOW_FRAME_RATE;
+                }
+            } else if (concealmentPct() > CONCEALMENT_THRESHOLD_PCT) {
+                reasons |= REASON_CONCEALMENT;
+            }
+            return reasons;
+        }
+    }
+}
@@ -51,6 +51,45 @@ public class RTCVideoViewManager extends SimpleViewManager<WebRTCView> {
         view.setObjectFit(objectFit);
     }
 
+    /**
+     * Sets the highest frame rate at which a specific {@link WebRTCView}
+     * renders its video.
+     *
+     * @param view The {@code WebRTCView} on which the specified
+     * {@code maxRenderFps} is to be set.
+     * @param maxRenderFps The maximum frame rate, or 0 for no limit.
+     */
+    @ReactProp(name = "maxRenderFps", defaultFloat = 0f)
+    public void setMaxRenderFps(WebRTCView view, float maxRenderFps) {
+        view.setMaxRenderFps(maxRenderFps);
+    }
+
+    /**
+     * Sets whether a specific {@link WebRTCView} scales video frames much
+     * larger than itself down to its size before rendering them.
+     *
+     * @param view The {@code WebRTCView} on which the specified
+     * {@code scaleToViewSize} is to be set.
+     * @param scaleToViewSize {@code true} to scale frames down to the view.
+     */
+    @ReactProp(name = "scaleToViewSize")
+    public void setScaleToViewSize(WebRTCView view, boolean scaleToViewSize) {
+        view.setScaleToViewSize(scaleToViewSize);
+    }
+
+    /**
+     * Sets whether a specific {@link WebRTCView} stops rendering while it can't
+     * be seen (hidden, scrolled out of view or fully transparent).
+     *
+     * @param view The {@code WebRTCView} on which the specified
+     * {@code pauseWhenHidden} is to be set.
+     * @param pauseWhenHidden {@code true} to pause rendering while hidden.
+     */
+    @ReactProp(name = "pauseWhenHidden")
+    public void setPauseWhenHidden(WebRTCView view, boolean pauseWhenHidden) {
+        view.setPauseWhenHidden(pauseWhenHidden);
+    }
+
     @ReactProp(name = "streamURL")
     public void setStreamURL(WebRTCView view, String streamURL) {
         view.setStreamURL(streamURL);
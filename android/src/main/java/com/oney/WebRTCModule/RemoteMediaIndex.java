@@ -0,0 +1,73 @@
+package com.oney.WebRTCModule;
+
+import androidx.annotation.Nullable;
+
+import org.webrtc.MediaStream;
+import org.webrtc.MediaStreamTrack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Module-wide index of remote tracks (by track id) and remote streams (by
+ * stream react tag), so lookups which don't know the owning PeerConnection
+ * don't have to walk every one of them. Receiver tracks are indexed when
+ * their transceiver is created, before onAddTrack signals them.
+ *
+ * <p>Entries are added and removed by the owning {@link PeerConnectionObserver}
+ * on its executor lane; lookups may come from any thread. Removal only drops
+ * the entry if it still belongs to the given PeerConnection, so a track id
+ * reused by another PeerConnection isn't dropped by mistake.
+ */
+final class RemoteMediaIndex {
+    static final class Entry<T> {
+        final int pcId;
+        final T value;
+
+        Entry(int pcId, T value) {
+            this.pcId = pcId;
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Entry<MediaStreamTrack>> tracks = new ConcurrentHashMap<>();
+    private final Map<String, Entry<MediaStream>> streams = new ConcurrentHashMap<>();
+
+    void putTrack(int pcId, MediaStreamTrack track) {
+        tracks.put(track.id(), new Entry<>(pcId, track));
+    }
+
+    void removeTrack(int pcId, String trackId) {
+        Entry<MediaStreamTrack> entry = tracks.get(trackId);
+        if (entry != null && entry.pcId == pcId) {
+            tracks.remove(trackId, entry);
+        }
+    }
+
+    @Nullable
+    Entry<MediaStreamTrack> getTrack(String trackId) {
+        return tracks.get(trackId);
+    }
+
+    void putStream(int pcId, String streamReactTag, MediaStream stream) {
+        streams.put(streamReactTag, new Entry<>(pcId, stream));
+    }
+
+    void removeStream(int pcId, String streamReactTag) {
+        Entry<MediaStream> entry = streams.get(streamReactTag);
+        if (entry != null && entry.pcId == pcId) {
+            streams.remove(streamReactTag, entry);
+        }
+    }
+
+    @Nullable
+    MediaStream getStream(String streamReactTag) {
+        Entry<MediaStream> entry = streams.get(streamReactTag);
+        return entry == null ? null : entry.value;
+    }
+
+    void clear() {
+        tracks.clear();
+        streams.clear();
+    }
+}
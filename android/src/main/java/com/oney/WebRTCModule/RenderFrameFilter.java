@@ -0,0 +1,141 @@
+package com.oney.WebRTCModule;
+
+import androidx.annotation.Nullable;
+
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+
+/**
+ * Sits between a video track and the renderer of a {@link WebRTCView} and
+ * trims what the renderer gets to what the view can show:
+ * <ul>
+ *   <li>frames above the view's maximum frame rate are dropped before they
+ *       reach the renderer, so they're never uploaded or drawn;</li>
+ *   <li>CPU (I420) frames much larger than the view are scaled down to the
+ *       view's size first, so only that much is uploaded to the GPU.
+ *       Texture frames are passed on as they are, the GPU scales them while
+ *       drawing anyway.</li>
+ * </ul>
+ * It also reports the first frame passed on to each new renderer: a renderer
+ * reused from the {@link VideoRendererPool} may not report it again itself.
+ *
+ * <p>{@link #onFrame} runs on the decoder thread; the settings may be changed
+ * from the UI thread at any time.
+ */
+class RenderFrameFilter implements VideoSink {
+    /**
+     * Frames are only scaled down if the result is at most this fraction of
+     * their size, smaller savings aren't worth the extra pass over the frame.
+     */
+    private static final float MAX_SCALE = 0.75f;
+
+    private final Runnable firstFrameListener;
+
+    @Nullable
+    private volatile VideoSink sink;
+    private volatile boolean firstFrameDelivered;
+
+    private volatile float maxFps;
+    private volatile boolean scaleToViewSize;
+    private volatile int viewWidth;
+    private volatile int viewHeight;
+
+    // Only accessed on the decoder thread.
+    private long nextFrameTimeNs = -1;
+
+    /**
+     * @param firstFrameListener run on the decoder thread once the first
+     * frame has been passed on to a sink set with {@link #setSink}.
+     */
+    RenderFrameFilter(Runnable firstFrameListener) {
+        this.firstFrameListener = firstFrameListener;
+    }
+
+    /**
+     * Sets the renderer frames are passed on to, {@code null} to drop them.
+     */
+    void setSink(@Nullable VideoSink sink) {
+        firstFrameDelivered = false;
+        this.sink = sink;
+    }
+
+    /**
+     * @param maxFps the highest frame rate to render, 0 or less for no limit.
+     */
+    void setMaxFps(float maxFps) {
+        this.maxFps = maxFps;
+    }
+
+    void setScaleToViewSize(boolean scaleToViewSize) {
+        this.scaleToViewSize = scaleToViewSize;
+    }
+
+    /**
+     * @param width the view's width in pixels
+     * @param height the view's height in pixels
+     */
+    void setViewSize(int width, int height) {
+        viewWidth = width;
+        viewHeight = height;
+    }
+
+    @Override
+    public void onFrame(VideoFrame frame) {
+        VideoSink sink = this.sink;
+        if (sink == null) {
+            return;
+        }
+
+        float maxFps = this.maxFps;
+        if (maxFps > 0) {
+            long timestampNs = frame.getTimestampNs();
+            if (nextFrameTimeNs != -1 && timestampNs < nextFrameTimeNs) {
+                return;
+            }
+            long periodNs = (long) (1_000_000_000L / maxFps);
+            // Keep a steady cadence, but don't try to catch up after a gap.
+            nextFrameTimeNs = nextFrameTimeNs == -1 || timestampNs - nextFrameTimeNs > periodNs
+                    ? timestampNs + periodNs
+                    : nextFrameTimeNs + periodNs;
+        } else {
+            nextFrameTimeNs = -1;
+        }
+
+        VideoFrame.Buffer buffer = frame.getBuffer();
+        int width = viewWidth;
+        int height = viewHeight;
+        if (!scaleToViewSize || width <= 0 || height <= 0 || buffer instanceof VideoFrame.TextureBuffer) {
+            deliver(sink, frame);
+            return;
+        }
+
+        // The view shows the rotated frame; cover it without upscaling afterwards.
+        int rotatedWidth = frame.getRotatedWidth();
+        int rotatedHeight = frame.getRotatedHeight();
+        float scale = Math.max(width / (float) rotatedWidth, height / (float) rotatedHeight);
+        if (scale > MAX_SCALE) {
+            deliver(sink, frame);
+            return;
+        }
+
+        int bufferWidth = buffer.getWidth();
+        int bufferHeight = buffer.getHeight();
+        int scaledWidth = Math.max(2, Math.round(bufferWidth * scale) & ~1);
+        int scaledHeight = Math.max(2, Math.round(bufferHeight * scale) & ~1);
+        VideoFrame.Buffer scaled = buffer.cropAndScale(0, 0, bufferWidth, bufferHeight, scaledWidth, scaledHeight);
+        VideoFrame scaledFrame = new VideoFrame(scaled, frame.getRotation(), frame.getTimestampNs());
+        try {
+            deliver(sink, scaledFrame);
+        } finally {
+            scaledFrame.release();
+        }
+    }
+
+    private void deliver(VideoSink sink, VideoFrame frame) {
+        sink.onFrame(frame);
+        if (!firstFrameDelivered) {
+            firstFrameDelivered = true;
+            firstFrameListener.run();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.oney.WebRTCModule;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mixes screen-share audio into a captured mic chunk in place, on the audio
+ * device module's buffer callback.
+ *
+ * <p>Both buffers are PCM16 LE. Samples are read and written with absolute
+ * byte accesses, so neither buffer's position, limit or byte order is touched
+ * and nothing is allocated per chunk. The screen audio may use a different
+ * sample rate (linearly interpolated, with the phase and last frame carried
+ * over to the next chunk) or channel count (mono is duplicated, extra
+ * channels are averaged down) than the mic. Each source has its own
+ * gain, and sums above {@link #KNEE} are compressed towards full scale instead
+ * of being hard clamped, which avoids the harsh distortion of clipped peaks.
+ *
+ * <p>Thread-safety: single-threaded, like {@link SpeechActivityDetector}.
+ */
+class ScreenAudioMixer {
+    /** Level (of a full-scale int16 sample) above which the soft clipper starts compressing. */
+    static final int KNEE = 24576;
+    private static final int HEADROOM = Short.MAX_VALUE - KNEE;
+
+    private static final long ONE = 1L << 16;
+
+    // Resampler state, carried across chunks so the screen audio is one
+    // continuous signal instead of restarting its phase every chunk.
+    /**
+     * Position of the next mic frame in the screen audio, in 16.16 fixed
+     * point, where 0 is {@link #previous} and 1 the first frame of the next
+     * screen chunk.
+     */
+    private long phase = ONE;
+    /** The last screen frame of the previous chunk, mapped to the mic's channels. */
+    private int[] previous = new int[2];
+    private int stateSrcRate;
+    private int stateDstRate;
+    private int stateSrcChannels;
+    private int stateDstChannels;
+
+    /**
+     * Forgets the previous chunk, e.g. after a gap in the screen audio. The
+     * next chunk starts at its first frame.
+     */
+    void reset() {
+        phase = ONE;
+        stateSrcRate = stateDstRate = stateSrcChannels = stateDstChannels = 0;
+    }
+
+    /**
+     * Number of bytes to ask the screen audio provider for, so that it covers
+     * <tt>micBytes</tt> of mic audio once converted to the mic's format. Since
+     * the resampling phase carries over between chunks, this varies by a frame
+     * from chunk to chunk when the sample rates differ.
+     *
+     * @param screenSampleRate the provider's sample rate, or 0 or less if it
+     *                         matches the mic
+     * @param screenChannels the provider's channel count, or 0 or less if it
+     *                       matches the mic
+     */
+    int screenBytesFor(int micBytes, int micSampleRate, int micChannels, int screenSampleRate, int screenChannels) {
+        int dstChannels = Math.max(1, micChannels);
+        int srcRate = screenSampleRate > 0 ? screenSampleRate : micSampleRate;
+        int srcChannels = screenChannels > 0 ? screenChannels : dstChannels;
+        if (srcRate == micSampleRate && srcChannels == dstChannels) {
+            return micBytes;
+        }
+        int micFrames = micBytes / (2 * dstChannels);
+        if (micFrames <= 0) {
+            return 0;
+        }
+        long start = startPhase(micSampleRate, dstChannels, srcRate, srcChannels);
+        // Frames up to (and including) the one after the last position used.
+        long srcFrames = ((start + (micFrames - 1) * step(srcRate, micSampleRate)) >> 16) + 1;
+        return (int) (srcFrames * srcChannels * 2);
+    }
+
+    /**
+     * Adds <tt>screen</tt> (from index 0 up to its limit) to the first
+     * <tt>micBytes</tt> of <tt>mic</tt>. If the screen audio is shorter, the
+     * rest of the mic chunk is left untouched.
+     */
+    void mix(ByteBuffer mic, int micBytes, int micSampleRate, int micChannels, float micGain,
+            ByteBuffer screen, int screenSampleRate, int screenChannels, float screenGain) {
+        int dstChannels = Math.max(1, micChannels);
+        int srcChannels = screenChannels > 0 ? screenChannels : dstChannels;
+        int srcRate = screenSampleRate > 0 ? screenSampleRate : micSampleRate;
+        int dstFrames = Math.min(micBytes, mic.capacity()) / (2 * dstChannels);
+        int srcFrames = screen.limit() / (2 * srcChannels);
+        if (dstFrames <= 0 || srcFrames <= 0) {
+            return;
+        }
+
+        if (srcRate == micSampleRate && srcChannels == dstChannels && micGain == 1f && screenGain == 1f) {
+            reset();
+            mixSameFormat(mic, screen, Math.min(dstFrames, srcFrames) * dstChannels);
+            return;
+        }
+
+        long pos = startPhase(micSampleRate, dstChannels, srcRate, srcChannels);
+        long step = step(srcRate, micSampleRate);
+        if (previous.length < dstChannels) {
+            previous = new int[dstChannels];
+        }
+        int srcStride = 2 * srcChannels;
+        for (int frame = 0, dstOffset = 0; frame < dstFrames; frame++, pos += step) {
+            // Interpolate between frames index and index + 1 of [previous, screen...].
+            int index = (int) (pos >> 16);
+            if (index >= srcFrames) {
+                break;
+            }
+            int frac = (int) (pos & 0xFFFF);
+            int srcOffset = (index - 1) * srcStride;
+            int nextOffset = index * srcStride;
+
+            for (int c = 0; c < dstChannels; c++, dstOffset += 2) {
+                int a = index == 0 ? previous[c] : mappedSample(screen, srcOffset, c, srcChannels, dstChannels);
+                int b = mappedSample(screen, nextOffset, c, srcChannels, dstChannels);
+                int screenSample = a + (((b - a) * frac) >> 16);
+                float sum = sampleAt(mic, dstOffset) * micGain + screenSample * screenGain;
+                putSample(mic, dstOffset, softClip((int) sum));
+            }
+        }
+
+        int lastOffset = (srcFrames - 1) * srcStride;
+        for (int c = 0; c < dstChannels; c++) {
+            previous[c] = mappedSample(screen, lastOffset, c, srcChannels, dstChannels);
+        }
+        // Surplus screen frames (more than were asked for) are skipped.
+        phase = Math.max(0, pos - ((long) srcFrames << 16));
+        stateSrcRate = srcRate;
+        stateDstRate = micSampleRate;
+        stateSrcChannels = srcChannels;
+        stateDstChannels = dstChannels;
+    }
+
+    /** Where the next chunk starts; from scratch if the formats changed. */
+    private long startPhase(int dstRate, int dstChannels, int srcRate, int srcChannels) {
+        if (srcRate != stateSrcRate || dstRate != stateDstRate || srcChannels != stateSrcChannels
+                || dstChannels != stateDstChannels) {
+            return ONE;
+        }
+        return phase;
+    }
+
+    /** Source frames per destination frame, in 16.16 fixed point. */
+    private static long step(int srcRate, int dstRate) {
+        return dstRate > 0 ? ((long) srcRate << 16) / dstRate : ONE;
+    }
+
+    /** Channel <tt>c</tt> of the mic's layout, from the screen frame at the given offset. */
+    private static int mappedSample(ByteBuffer screen, int frameOffset, int c, int srcChannels, int dstChannels) {
+        if (srcChannels == dstChannels) {
+            return sampleAt(screen, frameOffset + 2 * c);
+        }
+        if (dstChannels == 1) {
+            return downmix(screen, frameOffset, srcChannels);
+        }
+        return sampleAt(screen, frameOffset + 2 * Math.min(c, srcChannels - 1));
+    }
+
+    private static void mixSameFormat(ByteBuffer mic, ByteBuffer screen, int samples) {
+        for (int i = 0, offset = 0; i < samples; i++, offset += 2) {
+            putSample(mic, offset, softClip(sampleAt(mic, offset) + sampleAt(screen, offset)));
+        }
+    }
+
+    private static int downmix(ByteBuffer buffer, int offset, int channels) {
+        int sum = 0;
+        for (int c = 0; c < channels; c++) {
+            sum += sampleAt(buffer, offset + 2 * c);
+        }
+        return sum / channels;
+    }
+
+    /**
+     * Identity up to {@link #KNEE}, then a rational curve with slope 1 at the
+     * knee which approaches full scale asymptotically.
+     */
+    static int softClip(int sample) {
+        if (sample > KNEE) {
+            int over = sample - KNEE;
+            return KNEE + (int) ((long) HEADROOM * over / (over + HEADROOM));
+        }
+        if (sample < -KNEE) {
+            int over = -KNEE - sample;
+            return -KNEE - (int) ((long) HEADROOM * over / (over + HEADROOM));
+        }
+        return sample;
+    }
+
+    private static int sampleAt(ByteBuffer buffer, int offset) {
+        return (short) ((buffer.get(offset) & 0xFF) | (buffer.get(offset + 1) << 8));
+    }
+
+    private static void putSample(ByteBuffer buffer, int offset, int sample) {
+        buffer.put(offset, (byte) sample);
+        buffer.put(offset + 1, (byte) (sample >> 8));
+    }
+}
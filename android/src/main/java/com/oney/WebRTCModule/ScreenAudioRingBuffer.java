@@ -0,0 +1,260 @@
+package com.oney.WebRTCModule;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link WebRTCModuleOptions.ScreenAudioBytesProvider} which screen capture
+ * code can write PCM 16-bit audio into as it arrives, instead of producing a
+ * buffer on demand for every mic callback.
+ *
+ * <p>It is a single-producer / single-consumer ring: one capture thread calls
+ * {@link #write}, the audio device module's callback reads. Neither side
+ * locks or allocates in steady state.
+ *
+ * <p>The screen capture and mic clocks drift apart over time. The reader keeps
+ * the buffered audio around the target latency by consuming one frame more or
+ * less per chunk (stretched with linear interpolation, inaudible at ~0.2%)
+ * when the smoothed fill level strays from the target, and drops the excess
+ * at once if it runs far ahead. After an underrun the rest of the chunk is
+ * silent and reading resumes once the target latency is buffered again.
+ */
+public class ScreenAudioRingBuffer implements WebRTCModuleOptions.ScreenAudioBytesProvider {
+    public static final int DEFAULT_TARGET_LATENCY_MS = 40;
+    public static final int DEFAULT_CAPACITY_MS = 500;
+
+    /** Allowed deviation of the smoothed fill level from the target before correcting. */
+    private static final int TOLERANCE_MS = 5;
+    /** Smoothing factor of the fill level, per read. */
+    private static final double FILL_SMOOTHING = 0.05;
+
+    private final int sampleRate;
+    private final int channelCount;
+    private final short[] ring;
+    /** Capacity in frames. */
+    private final int capacity;
+    private final int targetFrames;
+    private final int toleranceFrames;
+
+    /** Frame positions; each is written by one side only. */
+    private volatile long writePosition;
+    private volatile long readPosition;
+
+    private volatile long overflowFrames;
+    private volatile long underruns;
+    private volatile long droppedFrames;
+    private volatile long stretchedChunks;
+
+    // Reader state.
+    private boolean primed;
+    private double smoothedFill = -1;
+    private ByteBuffer output = ByteBuffer.allocateDirect(0);
+
+    public ScreenAudioRingBuffer(int sampleRate, int channelCount) {
+        this(sampleRate, channelCount, DEFAULT_TARGET_LATENCY_MS, DEFAULT_CAPACITY_MS);
+    }
+
+    public ScreenAudioRingBuffer(int sampleRate, int channelCount, int targetLatencyMs, int capacityMs) {
+        if (sampleRate <= 0 || channelCount <= 0) {
+            throw new IllegalArgumentException("Invalid format: " + sampleRate + " Hz, " + channelCount + " channels");
+        }
+        if (targetLatencyMs <= 0 || capacityMs < 2 * targetLatencyMs) {
+            throw new IllegalArgumentException(
+                    "Capacity must be at least twice the target latency: " + capacityMs + " / " + targetLatencyMs);
+        }
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        this.capacity = framesFor(capacityMs);
+        this.targetFrames = framesFor(targetLatencyMs);
+        this.toleranceFrames = Math.max(1, framesFor(TOLERANCE_MS));
+        this.ring = new short[capacity * channelCount];
+    }
+
+    /**
+     * Appends interleaved PCM 16-bit LE audio, read from the buffer's position
+     * to its limit; the position is advanced past all whole frames. Frames
+     * which don't fit are dropped and counted in {@link #getOverflowFrames()}.
+     *
+     * <p>Producer side: call from a single thread.
+     */
+    public void write(ByteBuffer pcm) {
+        int frameBytes = 2 * channelCount;
+        int frames = pcm.remaining() / frameBytes;
+        int offset = pcm.position();
+        long write = writePosition;
+        int writable = writableFrames(write, frames);
+
+        for (int i = 0; i < writable * channelCount; i++, offset += 2) {
+            ring[ringIndex(write, i)] = (short) ((pcm.get(offset) & 0xFF) | (pcm.get(offset + 1) << 8));
+        }
+        pcm.position(pcm.position() + frames * frameBytes);
+        // Publishes the samples above to the reader.
+        writePosition = write + writable;
+    }
+
+    /**
+     * Appends interleaved samples; <tt>length</tt> is in samples, not frames.
+     *
+     * @see #write(ByteBuffer)
+     */
+    public void write(short[] samples, int offset, int length) {
+        int frames = length / channelCount;
+        long write = writePosition;
+        int writable = writableFrames(write, frames);
+
+        for (int i = 0; i < writable * channelCount; i++) {
+            ring[ringIndex(write, i)] = samples[offset + i];
+        }
+        writePosition = write + writable;
+    }
+
+    private int writableFrames(long write, int frames) {
+        int free = capacity - (int) (write - readPosition);
+        int writable = Math.min(frames, free);
+        if (writable < frames) {
+            overflowFrames += frames - writable;
+        }
+        return writable;
+    }
+
+    /**
+     * Consumer side, called by the audio device module's buffer callback. The
+     * returned buffer is reused by the next call.
+     */
+    @Override
+    public ByteBuffer getScreenAudioBytes(int bytesRequested) {
+        int frames = bytesRequested / (2 * channelCount);
+        if (frames <= 0) {
+            return null;
+        }
+
+        long read = readPosition;
+        int available = (int) (writePosition - read);
+
+        if (!primed) {
+            if (available < targetFrames + frames) {
+                return null;
+            }
+            primed = true;
+            smoothedFill = available;
+        }
+
+        // Far ahead of the target (e.g. the reader stalled): skip to it at once.
+        if (available > 2 * targetFrames + frames) {
+            int skip = available - targetFrames - frames;
+            read += skip;
+            available -= skip;
+            droppedFrames += skip;
+            smoothedFill = available;
+        }
+
+        smoothedFill += (available - smoothedFill) * FILL_SMOOTHING;
+        int consume = frames;
+        if (smoothedFill > targetFrames + frames + toleranceFrames) {
+            consume++;
+        } else if (smoothedFill < targetFrames + frames - toleranceFrames && frames > 1) {
+            consume--;
+        }
+
+        ByteBuffer out = outputBuffer(frames * 2 * channelCount);
+        if (available < consume) {
+            // Underrun: play what's left, then silence until primed again.
+            underruns++;
+            primed = false;
+            copyFrames(out, read, available);
+            for (int i = available * channelCount * 2; i < out.limit(); i++) {
+                out.put(i, (byte) 0);
+            }
+            readPosition = read + available;
+            return out;
+        }
+
+        if (consume == frames) {
+            copyFrames(out, read, frames);
+        } else {
+            stretchFrames(out, read, consume, frames);
+            stretchedChunks++;
+        }
+        readPosition = read + consume;
+        return out;
+    }
+
+    private void copyFrames(ByteBuffer out, long read, int frames) {
+        for (int i = 0, offset = 0; i < frames * channelCount; i++, offset += 2) {
+            putSample(out, offset, ring[ringIndex(read, i)]);
+        }
+    }
+
+    /** Linearly maps <tt>sourceFrames</tt> ring frames onto <tt>frames</tt> output frames. */
+    private void stretchFrames(ByteBuffer out, long read, int sourceFrames, int frames) {
+        long step = ((long) (sourceFrames - 1) << 16) / Math.max(1, frames - 1);
+        long pos = 0;
+        for (int frame = 0, offset = 0; frame < frames; frame++, pos += step) {
+            int index = (int) (pos >> 16);
+            int next = Math.min(index + 1, sourceFrames - 1);
+            int frac = (int) (pos & 0xFFFF);
+            for (int c = 0; c < channelCount; c++, offset += 2) {
+                int a = ring[ringIndex(read, index * channelCount + c)];
+                int b = ring[ringIndex(read, next * channelCount + c)];
+                putSample(out, offset, a + (((b - a) * frac) >> 16));
+            }
+        }
+    }
+
+    private ByteBuffer outputBuffer(int bytes) {
+        if (output.capacity() < bytes) {
+            output = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        output.clear();
+        output.limit(bytes);
+        return output;
+    }
+
+    private int ringIndex(long framePosition, int sample) {
+        return (int) ((framePosition % capacity) * channelCount + sample) % ring.length;
+    }
+
+    private static void putSample(ByteBuffer buffer, int offset, int sample) {
+        buffer.put(offset, (byte) sample);
+        buffer.put(offset + 1, (byte) (sample >> 8));
+    }
+
+    private int framesFor(int ms) {
+        return (int) ((long) sampleRate * ms / 1000);
+    }
+
+    @Override
+    public int getScreenAudioSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getScreenAudioChannelCount() {
+        return channelCount;
+    }
+
+    /** Frames currently buffered. */
+    public int getBufferedFrames() {
+        return (int) (writePosition - readPosition);
+    }
+
+    /** Frames the producer wrote while the ring was full, which were dropped. */
+    public long getOverflowFrames() {
+        return overflowFrames;
+    }
+
+    /** Times the reader ran out of audio. */
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    /** Frames the reader skipped because it fell far behind the target latency. */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /** Chunks read with one frame more or less than requested, to compensate drift. */
+    public long getStretchedChunks() {
+        return stretchedChunks;
+    }
+}
@@ -191,6 +191,35 @@ public class SerializeUtils {
         return result;
     }
 
+    /**
+     * Returns a string which changes whenever anything
+     * {@link #serializeRtpParameters(RtpParameters)} reports changes, except the
+     * transaction id (which is fresh for every getParameters() call). Used to
+     * skip re-serializing parameters JS already has.
+     */
+    static String rtpParametersFingerprint(RtpParameters params) {
+        StringBuilder builder = new StringBuilder(128);
+        builder.append(params.getRtcp().getCname()).append('|').append(params.getRtcp().getReducedSize());
+
+        for (RtpParameters.HeaderExtension extension : params.getHeaderExtensions()) {
+            builder.append("|h").append(extension.getId()).append(',').append(extension.getUri())
+                    .append(',').append(extension.getEncrypted());
+        }
+        for (RtpParameters.Encoding encoding : params.encodings) {
+            builder.append("|e").append(encoding.active).append(',').append(encoding.rid)
+                    .append(',').append(encoding.maxBitrateBps).append(',').append(encoding.minBitrateBps)
+                    .append(',').append(encoding.maxFramerate).append(',').append(encoding.scaleResolutionDownBy);
+        }
+        for (RtpParameters.Codec codec : params.codecs) {
+            builder.append("|c").append(codec.payloadType).append(',').append(codec.name)
+                    .append(',').append(codec.clockRate).append(',').append(codec.numChannels)
+                    .append(',').append(codec.parameters);
+        }
+        builder.append('|').append(params.degradationPreference);
+
+        return builder.toString();
+    }
+
     public static ReadableMap serializeRtpCapabilities(RtpCapabilities capabilities) {
         WritableMap result = Arguments.createMap();
         WritableArray codecs = Arguments.createArray();
@@ -0,0 +1,193 @@
+package com.oney.WebRTCModule;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Choreographer;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import org.webrtc.EglBase;
+import org.webrtc.EglThread;
+import org.webrtc.VideoFrame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Render threads shared by {@link SharedThreadVideoRenderer}s, so a gallery
+ * of N video views doesn't run N render threads next to the decoders.
+ *
+ * <p>Each render thread (an {@link EglThread}) serves up to
+ * {@link WebRTCModuleOptions#videoViewsPerRenderThread} renderers; threads are
+ * created when all existing ones are full and quit once their last renderer
+ * is released.
+ *
+ * <p>Frames are not handed to a render thread as they are decoded. Each
+ * renderer keeps only its latest frame; on every vsync a scheduler thread
+ * hands at most {@link WebRTCModuleOptions#maxFramesPerVsyncPerRenderThread}
+ * pending frames to each render thread, picking renderers round-robin so a
+ * busy tile can't starve the others. A frame replaced before it was scheduled
+ * is counted as dropped.
+ */
+final class SharedRenderThreadPool {
+    private static SharedRenderThreadPool instance;
+
+    static synchronized SharedRenderThreadPool getInstance() {
+        if (instance == null) {
+            instance = new SharedRenderThreadPool();
+        }
+        return instance;
+    }
+
+    private final Object lock = new Object();
+    private final List<RenderThread> threads = new ArrayList<>();
+
+    private final Handler schedulerHandler;
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> scheduleFrames();
+
+    private final AtomicLong framesRendered = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+
+    private SharedRenderThreadPool() {
+        HandlerThread schedulerThread = new HandlerThread("WebRTCView-frame-scheduler");
+        schedulerThread.start();
+        schedulerHandler = new Handler(schedulerThread.getLooper());
+    }
+
+    /**
+     * Assigns the renderer to a render thread, creating one if needed.
+     */
+    EglThread acquire(SharedThreadVideoRenderer renderer, EglBase.Context sharedContext) {
+        int maxRenderers = Math.max(1, WebRTCModuleOptions.getInstance().videoViewsPerRenderThread);
+        synchronized (lock) {
+            RenderThread target = null;
+            for (RenderThread thread : threads) {
+                if (thread.refs < maxRenderers && (target == null || thread.refs < target.refs)) {
+                    target = thread;
+                }
+            }
+            if (target == null) {
+                target = new RenderThread();
+                target.eglThread = EglThread.create(this::onRelease, sharedContext, EglBase.CONFIG_PLAIN);
+                threads.add(target);
+            }
+            target.refs++;
+            target.renderers.add(renderer);
+            renderer.renderThread = target;
+            return target.eglThread;
+        }
+    }
+
+    /**
+     * Stops scheduling frames for the renderer. Its reference to the render
+     * thread is dropped separately, when its EglRenderer releases it.
+     */
+    void remove(SharedThreadVideoRenderer renderer) {
+        synchronized (lock) {
+            RenderThread thread = renderer.renderThread;
+            if (thread != null) {
+                thread.renderers.remove(renderer);
+                renderer.renderThread = null;
+            }
+        }
+        renderer.dropPendingFrame();
+    }
+
+    /** {@link EglThread.ReleaseMonitor}: quit the thread once nobody uses it. */
+    private boolean onRelease(EglThread eglThread) {
+        synchronized (lock) {
+            for (int i = 0; i < threads.size(); i++) {
+                RenderThread thread = threads.get(i);
+                if (thread.eglThread == eglThread) {
+                    if (--thread.refs > 0) {
+                        return false;
+                    }
+                    threads.remove(i);
+                    return true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called by a renderer (on the decoder thread) after it stored a new
+     * pending frame.
+     */
+    void onFramePending(boolean replacedPending) {
+        if (replacedPending) {
+            framesDropped.incrementAndGet();
+        }
+        if (frameScheduled.compareAndSet(false, true)) {
+            schedulerHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
+        }
+    }
+
+    private void scheduleFrames() {
+        frameScheduled.set(false);
+        int budget = Math.max(1, WebRTCModuleOptions.getInstance().maxFramesPerVsyncPerRenderThread);
+        boolean framesLeft = false;
+
+        synchronized (lock) {
+            for (RenderThread thread : threads) {
+                List<SharedThreadVideoRenderer> renderers = thread.renderers;
+                int count = renderers.size();
+                int rendered = 0;
+                for (int i = 0; i < count; i++) {
+                    int index = (thread.cursor + i) % count;
+                    SharedThreadVideoRenderer renderer = renderers.get(index);
+                    if (!renderer.hasPendingFrame()) {
+                        continue;
+                    }
+                    if (rendered == budget) {
+                        // Out of budget: resume with this renderer on the next vsync.
+                        thread.cursor = index;
+                        framesLeft = true;
+                        break;
+                    }
+                    VideoFrame frame = renderer.takePendingFrame();
+                    if (frame != null) {
+                        renderer.renderFrame(frame);
+                        frame.release();
+                        rendered++;
+                        framesRendered.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        if (framesLeft && frameScheduled.compareAndSet(false, true)) {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * @return <tt>{renderThreads, renderers, framesRendered, framesDropped}</tt>
+     */
+    WritableMap getStats(boolean reset) {
+        WritableMap stats = Arguments.createMap();
+        synchronized (lock) {
+            int renderers = 0;
+            for (RenderThread thread : threads) {
+                renderers += thread.renderers.size();
+            }
+            stats.putInt("renderThreads", threads.size());
+            stats.putInt("renderers", renderers);
+        }
+        stats.putDouble("framesRendered", reset ? framesRendered.getAndSet(0) : framesRendered.get());
+        stats.putDouble("framesDropped", reset ? framesDropped.getAndSet(0) : framesDropped.get());
+        return stats;
+    }
+
+    static final class RenderThread {
+        EglThread eglThread;
+        /** References held by EglRenderers, released through {@link #onRelease}. */
+        int refs;
+        final List<SharedThreadVideoRenderer> renderers = new ArrayList<>();
+        int cursor;
+    }
+}
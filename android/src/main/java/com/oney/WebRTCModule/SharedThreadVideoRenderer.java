@@ -0,0 +1,196 @@
+package com.oney.WebRTCModule;
+
+import android.content.Context;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import org.webrtc.EglBase;
+import org.webrtc.EglRenderer;
+import org.webrtc.GlRectDrawer;
+import org.webrtc.RendererCommon.RendererEvents;
+import org.webrtc.RendererCommon.ScalingType;
+import org.webrtc.VideoFrame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link VideoViewRenderer} which renders on a render thread shared with
+ * other views, see {@link SharedRenderThreadPool}. Otherwise it behaves like
+ * {@link org.webrtc.SurfaceViewRenderer}: the frame is drawn to fill the
+ * surface, cropped to the view's aspect ratio.
+ */
+class SharedThreadVideoRenderer extends SurfaceView implements VideoViewRenderer, SurfaceHolder.Callback {
+    private final EglRenderer eglRenderer;
+    private final AtomicReference<VideoFrame> pendingFrame = new AtomicReference<>();
+
+    /** Guarded by the pool's lock. */
+    SharedRenderThreadPool.RenderThread renderThread;
+
+    private boolean initialized;
+    /** Whether the pool schedules this renderer's frames, i.e. between init() and release(). */
+    private volatile boolean scheduled;
+    private volatile boolean paused;
+    private RendererEvents rendererEvents;
+
+    // Accessed on the frame scheduler thread, and by init() and pause() while no frames flow.
+    private boolean firstFrameRendered;
+    private int frameWidth;
+    private int frameHeight;
+    private int frameRotation;
+
+    SharedThreadVideoRenderer(Context context) {
+        super(context);
+        eglRenderer = new EglRenderer("WebRTCView-" + System.identityHashCode(this));
+        getHolder().addCallback(this);
+    }
+
+    @Override
+    public SurfaceView getView() {
+        return this;
+    }
+
+    @Override
+    public void init(EglBase.Context sharedContext, RendererEvents rendererEvents) {
+        this.rendererEvents = rendererEvents;
+        firstFrameRendered = false;
+        frameWidth = frameHeight = frameRotation = 0;
+
+        eglRenderer.init(SharedRenderThreadPool.getInstance().acquire(this, sharedContext), new GlRectDrawer(),
+                /* usePresentationTimeStamp */ false);
+        initialized = true;
+        scheduled = true;
+
+        SurfaceHolder holder = getHolder();
+        if (holder.getSurface() != null && holder.getSurface().isValid()) {
+            eglRenderer.createEglSurface(holder.getSurface());
+        }
+    }
+
+    @Override
+    public void release() {
+        if (!initialized) {
+            return;
+        }
+        initialized = false;
+        scheduled = false;
+        SharedRenderThreadPool.getInstance().remove(this);
+        // Releases this renderer's reference to the render thread.
+        eglRenderer.release();
+    }
+
+    @Override
+    public void setMirror(boolean mirror) {
+        eglRenderer.setMirror(mirror);
+    }
+
+    @Override
+    public void setScalingType(ScalingType scalingType) {
+        // The parent WebRTCView lays this view out with the frame's aspect
+        // ratio for "contain", and the frame is cropped to the layout's aspect
+        // ratio below, which covers "cover".
+    }
+
+    @Override
+    public void clearImage() {
+        eglRenderer.clearImage();
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+        dropPendingFrame();
+        firstFrameRendered = false;
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (bottom > top) {
+            eglRenderer.setLayoutAspectRatio((right - left) / (float) (bottom - top));
+        }
+    }
+
+    // VideoSink, called on the decoder thread.
+
+    @Override
+    public void onFrame(VideoFrame frame) {
+        if (paused || !scheduled) {
+            return;
+        }
+        frame.retain();
+        VideoFrame replaced = pendingFrame.getAndSet(frame);
+        if (replaced != null) {
+            replaced.release();
+        }
+        // The sink is removed from the track asynchronously: release() or
+        // pause() may have dropped the pending frame while this one was being
+        // stored. Nothing would ever render or release it, and a held texture
+        // frame stalls the decoder for every view of the track.
+        if (paused || !scheduled) {
+            dropPendingFrame();
+            return;
+        }
+        SharedRenderThreadPool.getInstance().onFramePending(replaced != null);
+    }
+
+    boolean hasPendingFrame() {
+        return pendingFrame.get() != null;
+    }
+
+    VideoFrame takePendingFrame() {
+        return pendingFrame.getAndSet(null);
+    }
+
+    void dropPendingFrame() {
+        VideoFrame frame = pendingFrame.getAndSet(null);
+        if (frame != null) {
+            frame.release();
+        }
+    }
+
+    /**
+     * Hands a frame to the render thread. Called by the pool's scheduler.
+     */
+    void renderFrame(VideoFrame frame) {
+        RendererEvents events = rendererEvents;
+        int width = frame.getBuffer().getWidth();
+        int height = frame.getBuffer().getHeight();
+        int rotation = frame.getRotation();
+        if (events != null && (width != frameWidth || height != frameHeight || rotation != frameRotation)) {
+            frameWidth = width;
+            frameHeight = height;
+            frameRotation = rotation;
+            events.onFrameResolutionChanged(width, height, rotation);
+        }
+        eglRenderer.onFrame(frame);
+        if (events != null && !firstFrameRendered) {
+            firstFrameRendered = true;
+            events.onFirstFrameRendered();
+        }
+    }
+
+    // SurfaceHolder.Callback
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        if (initialized) {
+            eglRenderer.createEglSurface(holder.getSurface());
+        }
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {}
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // The surface must not be used once this returns.
+        CountDownLatch completionLatch = new CountDownLatch(1);
+        eglRenderer.releaseEglSurface(completionLatch::countDown);
+        org.webrtc.ThreadUtils.awaitUninterruptibly(completionLatch);
+    }
+}
@@ -1,8 +1,6 @@
 package com.oney.WebRTCModule;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 
 /**
  * Tells you when the user is talking, by watching how loud the mic is over time.
@@ -16,8 +14,8 @@ import java.nio.ShortBuffer;
  *   <li>Track two things only: <b>when we last saw a loud chunk</b> and
  *       <b>when the current run of loud chunks started</b>.</li>
  *   <li>Fire {@code onSpeechStarted} once we've had loud chunks for
- *       {@link #START_CONFIRM_MS} in a row. Fire {@code onSpeechEnded} once
- *       {@link #SILENCE_TIMEOUT_MS} has passed with no loud chunks. The
+ *       {@link #DEFAULT_START_CONFIRM_MS} in a row. Fire {@code onSpeechEnded} once
+ *       {@link #DEFAULT_SILENCE_TIMEOUT_MS} has passed with no loud chunks. The
  *       timeout is long enough to span natural between-word pauses.</li>
  * </ol>
  *
@@ -38,7 +36,15 @@ import java.nio.ShortBuffer;
  * not voice features. Loud non-voice sounds (typing, door slams, music) will
  * trigger {@code onSpeechStarted}. iOS uses Apple's hardware VAD which is
  * smarter, but Android has no equivalent — same tradeoff stream-video-android
- * lives with.
+ * lives with. The opt-in adaptive mode
+ * ({@link WebRTCModuleOptions#speechActivityAdaptive}) narrows the gap: it
+ * tracks the noise floor instead of using a fixed threshold, and rejects
+ * chunks whose zero-crossing rate or high-band energy looks like typing,
+ * hiss or cymbals rather than voice. It still costs a single pass over at
+ * most {@link #MAX_ANALYZED_SAMPLES} samples per chunk.
+ *
+ * <p>The threshold, the mode and both durations are read from {@link WebRTCModuleOptions}
+ * on every chunk, so they can be tuned at runtime.
  *
  * <p>Thread-safety: single-threaded — only the WebRTC audio thread should call
  * {@link #processBuffer}. Listener callbacks fire synchronously on that thread;
@@ -50,20 +56,69 @@ class SpeechActivityDetector {
         void onSpeechEnded();
     }
 
-    /** Above this dBFS level a chunk counts as "loud". Matches stream-video-android. */
-    private static final double THRESHOLD_DB = -45.0;
-    /** Require loud chunks for this long before firing started (rejects door slams). */
-    private static final long START_CONFIRM_MS = 150;
-    /** Fire ended after this long with no loud chunk (spans natural between-word pauses). */
-    private static final long SILENCE_TIMEOUT_MS = 900;
+    /** Default dBFS level above which a chunk counts as "loud". Matches stream-video-android. */
+    static final double DEFAULT_THRESHOLD_DB = -45.0;
+    /** Default time loud chunks must last before firing started (rejects door slams). */
+    static final long DEFAULT_START_CONFIRM_MS = 150;
+    /** Default time without a loud chunk before firing ended (spans natural between-word pauses). */
+    static final long DEFAULT_SILENCE_TIMEOUT_MS = 900;
+    /** Default level above the noise floor at which a chunk counts as "loud" in adaptive mode. */
+    static final double DEFAULT_ADAPTIVE_MARGIN_DB = 10.0;
+
+    private static final long NANOS_PER_MS = 1_000_000L;
 
     private final Listener listener;
 
     private boolean isSpeaking = false;
     /** Start of the current run of above-threshold chunks, or -1 if last chunk was quiet. */
-    private long firstLoudMs = -1;
+    private long firstLoudNs = -1;
     /** Last time any chunk was above threshold, or -1 if never (or cleared on ended). */
-    private long lastLoudMs = -1;
+    private long lastLoudNs = -1;
+
+    /**
+     * The threshold as a mean square of raw int16 samples, so chunks can be
+     * compared without a sqrt/log per chunk. Recomputed when the configured dB
+     * threshold changes.
+     */
+    private double thresholdDb = Double.NaN;
+    private double thresholdMeanSquare;
+
+    // Adaptive mode, see processBuffer().
+
+    /** Upper bound of samples (per channel) analyzed per chunk, to bound the per-chunk cost. */
+    private static final int MAX_ANALYZED_SAMPLES = 960;
+    /** Chunks quieter than this (mean square of -70 dBFS) are never speech, however low the floor. */
+    private static final double MIN_SPEECH_MEAN_SQUARE = square(Short.MAX_VALUE * 3.1623e-4);
+    /** Lowest noise floor tracked (-80 dBFS), so digital silence doesn't make every click "speech". */
+    private static final double MIN_NOISE_FLOOR = square(Short.MAX_VALUE * 1e-4);
+    /**
+     * Per-chunk smoothing of the noise floor: falls fast, rises with a time
+     * constant of ~5 s at 10 ms chunks. That still brings the floor within a
+     * 10 dB margin of a steady level in ~0.5 s, so while a chunk is speech the
+     * floor rises far slower still (~10 s to reach the margin), which keeps
+     * uninterrupted talking loud while steady noise mistaken for speech is
+     * eventually absorbed.
+     */
+    private static final double NOISE_FLOOR_FALL = 0.2;
+    private static final double NOISE_FLOOR_RISE = 0.002;
+    private static final double NOISE_FLOOR_RISE_DURING_SPEECH = 0.0001;
+    /**
+     * Zero crossings per second above which a chunk is treated as noise-like
+     * (fricatives aside, speech energy sits well below this).
+     */
+    private static final double MAX_SPEECH_ZERO_CROSSINGS_PER_SEC = 5000;
+    /** Frequency below which most of the energy of a speech chunk lies. */
+    private static final double SPEECH_BAND_HZ = 3000;
+
+    private double noiseFloor = -1;
+    private int analyzedSampleRate = -1;
+    /**
+     * Ratio of first-difference energy to signal energy of a sine at
+     * {@link #SPEECH_BAND_HZ}. A first difference is a cheap high-pass filter,
+     * so a larger ratio means most of the energy is above the speech band
+     * (typing clicks, hiss, cymbals).
+     */
+    private double maxHighBandRatio;
 
     SpeechActivityDetector(Listener listener) {
         this.listener = listener;
@@ -71,72 +126,149 @@ class SpeechActivityDetector {
 
     /**
      * Feed one mic chunk through the detector. Reads PCM16 LE samples from
-     * {@code audioBuffer} without mutating its position/limit. May fire a
-     * listener callback synchronously if state flips.
+     * {@code audioBuffer} without mutating its position, limit or byte order,
+     * and without allocating. May fire a listener callback synchronously if
+     * state flips.
      *
      * <p>Must be called on the WebRTC audio thread, BEFORE any code that mutates
      * {@code audioBuffer} (e.g. screen-audio mixing) — otherwise the detector
      * sees post-mix audio and triggers on system sounds.
+     *
+     * <p>With {@link WebRTCModuleOptions#speechActivityAdaptive} set, a chunk
+     * counts as loud when it is {@link WebRTCModuleOptions#speechActivityAdaptiveMarginDb}
+     * above the tracked noise floor rather than above the fixed threshold, and
+     * only if its zero-crossing rate and high-band energy ratio look like
+     * speech. The start / silence timing is the same in both modes.
+     *
+     * @param sampleRate  sample rate of the chunk, used by the adaptive mode
+     * @param channelCount number of interleaved channels; the adaptive mode
+     *                     analyzes the first one only
+     * @param timestampNs monotonic capture time of the chunk, e.g. the audio
+     *                    device module's captureTimeNs; {@link System#nanoTime()}
+     *                    is used when it is not available (0 or less)
      */
-    void processBuffer(ByteBuffer audioBuffer, int bytesRead) {
-        if (bytesRead <= 0) {
+    void processBuffer(ByteBuffer audioBuffer, int bytesRead, int sampleRate, int channelCount, long timestampNs) {
+        int numSamples = Math.min(bytesRead, audioBuffer.capacity()) / 2;
+        if (numSamples <= 0) {
             return;
         }
 
-        // Work on a duplicate so we never mutate the caller's position/limit.
-        ByteBuffer buf = audioBuffer.duplicate();
-        buf.position(0);
-        buf.limit(bytesRead);
-        buf.order(ByteOrder.LITTLE_ENDIAN);
-        ShortBuffer shorts = buf.asShortBuffer();
+        WebRTCModuleOptions options = WebRTCModuleOptions.getInstance();
+        boolean loud = options.speechActivityAdaptive && sampleRate > 0
+                ? isLoudAdaptive(audioBuffer, numSamples, sampleRate, Math.max(1, channelCount), options)
+                : isLoudFixed(audioBuffer, numSamples, options);
 
-        int numSamples = shorts.remaining();
-        if (numSamples == 0) {
-            return;
-        }
+        long now = timestampNs > 0 ? timestampNs : System.nanoTime();
 
-        // Normalize int16 samples to [-1.0, 1.0] BEFORE squaring so the resulting
-        // dB value is dBFS (decibels relative to full scale). Without this, dB is
-        // computed against a 1-sample-unit reference and silence reads as ~+40.
-        double sumSquares = 0;
-        for (int i = 0; i < numSamples; i++) {
-            double sample = shorts.get(i) / (double) Short.MAX_VALUE;
-            sumSquares += sample * sample;
-        }
-
-        double rms = Math.sqrt(sumSquares / numSamples);
-        double db = (rms > 0) ? 20.0 * Math.log10(rms) : -100.0;
-
-        long now = System.currentTimeMillis();
-
-        if (db > THRESHOLD_DB) {
+        if (loud) {
             // Loud chunk. Open a start window if one isn't already open, and
             // remember this as the most recent loud chunk for ended timing.
-            lastLoudMs = now;
-            if (firstLoudMs < 0) {
-                firstLoudMs = now;
+            lastLoudNs = now;
+            if (firstLoudNs < 0) {
+                firstLoudNs = now;
             }
-            if (!isSpeaking && now - firstLoudMs >= START_CONFIRM_MS) {
+            if (!isSpeaking && now - firstLoudNs >= options.speechActivityStartConfirmMs * NANOS_PER_MS) {
                 isSpeaking = true;
                 listener.onSpeechStarted();
             }
         } else {
             // Quiet chunk. Cancel any in-progress start confirmation. If we're
             // already speaking, fire ended once the silence is long enough.
-            firstLoudMs = -1;
-            if (isSpeaking && lastLoudMs > 0 && now - lastLoudMs >= SILENCE_TIMEOUT_MS) {
+            firstLoudNs = -1;
+            if (isSpeaking && lastLoudNs > 0
+                    && now - lastLoudNs >= options.speechActivitySilenceTimeoutMs * NANOS_PER_MS) {
                 isSpeaking = false;
-                lastLoudMs = -1;
+                lastLoudNs = -1;
                 listener.onSpeechEnded();
             }
         }
     }
 
+    private boolean isLoudFixed(ByteBuffer audioBuffer, int numSamples, WebRTCModuleOptions options) {
+        // Sum of squares in the integer domain: 480 samples of at most 2^30
+        // each fit comfortably in a long.
+        long sumSquares = 0;
+        for (int i = 0, offset = 0; i < numSamples; i++, offset += 2) {
+            int sample = sampleAt(audioBuffer, offset);
+            sumSquares += (long) sample * sample;
+        }
+
+        double configuredDb = options.speechActivityThresholdDb;
+        if (configuredDb != thresholdDb) {
+            thresholdDb = configuredDb;
+            // dBFS is relative to a full-scale sample, Short.MAX_VALUE.
+            thresholdMeanSquare = square(Short.MAX_VALUE * Math.pow(10, configuredDb / 20.0));
+        }
+
+        return sumSquares > thresholdMeanSquare * numSamples;
+    }
+
+    private boolean isLoudAdaptive(ByteBuffer audioBuffer, int numSamples, int sampleRate, int channelCount,
+            WebRTCModuleOptions options) {
+        if (sampleRate != analyzedSampleRate) {
+            analyzedSampleRate = sampleRate;
+            maxHighBandRatio = 4 * square(Math.sin(Math.PI * Math.min(SPEECH_BAND_HZ, sampleRate / 2.0) / sampleRate));
+        }
+
+        int frames = Math.min(numSamples / channelCount, MAX_ANALYZED_SAMPLES);
+        if (frames < 2) {
+            return false;
+        }
+
+        // One pass: energy, first-difference ("high band") energy and zero crossings.
+        int stride = channelCount * 2;
+        long sumSquares = 0;
+        long sumDiffSquares = 0;
+        int zeroCrossings = 0;
+        int previous = sampleAt(audioBuffer, 0);
+        sumSquares += (long) previous * previous;
+        for (int i = 1, offset = stride; i < frames; i++, offset += stride) {
+            int sample = sampleAt(audioBuffer, offset);
+            sumSquares += (long) sample * sample;
+            int diff = sample - previous;
+            sumDiffSquares += (long) diff * diff;
+            if ((sample ^ previous) < 0) {
+                zeroCrossings++;
+            }
+            previous = sample;
+        }
+
+        double meanSquare = sumSquares / (double) frames;
+        if (noiseFloor < 0) {
+            noiseFloor = Math.max(MIN_NOISE_FLOOR, meanSquare);
+        }
+
+        double margin = Math.pow(10, options.speechActivityAdaptiveMarginDb / 10.0);
+        boolean speech = false;
+        if (meanSquare > noiseFloor * margin && meanSquare > MIN_SPEECH_MEAN_SQUARE) {
+            double zeroCrossingsPerSec = zeroCrossings * (double) sampleRate / frames;
+            double highBandRatio = sumDiffSquares / (double) sumSquares;
+            speech = zeroCrossingsPerSec < MAX_SPEECH_ZERO_CROSSINGS_PER_SEC && highBandRatio < maxHighBandRatio;
+        }
+
+        // Fall quickly to quieter levels, creep up slowly so a noisier room
+        // is picked up in seconds, and barely move while someone talks.
+        double rate = meanSquare < noiseFloor ? NOISE_FLOOR_FALL
+                : speech ? NOISE_FLOOR_RISE_DURING_SPEECH : NOISE_FLOOR_RISE;
+        noiseFloor = Math.max(MIN_NOISE_FLOOR, noiseFloor + (meanSquare - noiseFloor) * rate);
+
+        return speech;
+    }
+
+    private static int sampleAt(ByteBuffer buffer, int offset) {
+        return (short) ((buffer.get(offset) & 0xFF) | (buffer.get(offset + 1) << 8));
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
     /** Wipes state. Call on recorder start. No event fires. */
     void reset() {
         isSpeaking = false;
-        firstLoudMs = -1;
-        lastLoudMs = -1;
+        firstLoudNs = -1;
+        lastLoudNs = -1;
+        noiseFloor = -1;
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.oney.WebRTCModule;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Selects which stats and members {@link StringUtils#statsToJSON(org.webrtc.RTCStatsReport, StatsFilter)}
+ * serializes.
+ *
+ * <p>Options, as passed from JS:
+ * <ul>
+ *   <li>{@code fields}: map of stats type to either an array of member names or
+ *       {@code true} for all members. Types which are not listed are left out. When
+ *       {@code fields} is absent every type and member is included.</li>
+ *   <li>{@code deltaOnly}: only include members whose value changed since the
+ *       previous delta poll, and only stats with at least one such member.</li>
+ * </ul>
+ *
+ * <p>The delta baseline belongs to the caller (one per PeerConnection) and is
+ * handed in so consecutive polls can compare against each other.
+ */
+final class StatsFilter {
+    /** Stats type -> member names, or null for all members of that type. */
+    @Nullable
+    private final Map<String, Set<String>> fieldsByType;
+    @Nullable
+    private final Map<String, Map<String, Object>> deltaBaseline;
+
+    private StatsFilter(@Nullable Map<String, Set<String>> fieldsByType,
+            @Nullable Map<String, Map<String, Object>> deltaBaseline) {
+        this.fieldsByType = fieldsByType;
+        this.deltaBaseline = deltaBaseline;
+    }
+
+    /**
+     * @param options the JS options, see the class documentation
+     * @param deltaBaseline stats id -> member -> last reported value; only used
+     *                      when {@code deltaOnly} is set, and updated in place
+     */
+    static StatsFilter fromOptions(@Nullable ReadableMap options, Map<String, Map<String, Object>> deltaBaseline) {
+        Map<String, Set<String>> fieldsByType = null;
+        boolean deltaOnly = false;
+
+        if (options != null) {
+            if (options.hasKey("fields") && options.getType("fields") == ReadableType.Map) {
+                fieldsByType = new HashMap<>();
+                ReadableMap fields = options.getMap("fields");
+                ReadableMapKeySetIterator iterator = fields.keySetIterator();
+                while (iterator.hasNextKey()) {
+                    String type = iterator.nextKey();
+                    if (fields.getType(type) == ReadableType.Array) {
+                        ReadableArray names = fields.getArray(type);
+                        Set<String> members = new HashSet<>();
+                        for (int i = 0; i < names.size(); i++) {
+                            members.add(names.getString(i));
+                        }
+                        fieldsByType.put(type, members);
+                    } else if (fields.getType(type) == ReadableType.Boolean && fields.getBoolean(type)) {
+                        fieldsByType.put(type, null);
+                    }
+                }
+            }
+            deltaOnly = options.hasKey("deltaOnly") && options.getBoolean("deltaOnly");
+        }
+
+        return new StatsFilter(fieldsByType, deltaOnly ? deltaBaseline : null);
+    }
+
+    boolean includesType(String type) {
+        return fieldsByType == null || fieldsByType.containsKey(type);
+    }
+
+    boolean includesMember(String type, String member) {
+        if (fieldsByType == null) {
+            return true;
+        }
+        Set<String> members = fieldsByType.get(type);
+        return members == null || members.contains(member);
+    }
+
+    boolean isDeltaOnly() {
+        return deltaBaseline != null;
+    }
+
+    /**
+     * In delta mode, records the value and returns whether it differs from the
+     * previously reported one. Always true otherwise.
+     */
+    boolean changed(String statsId, String member, Object value) {
+        if (deltaBaseline == null) {
+            return true;
+        }
+
+        Map<String, Object> previous = deltaBaseline.get(statsId);
+        if (previous == null) {
+            previous = new HashMap<>();
+            deltaBaseline.put(statsId, previous);
+        }
+
+        Object previousValue = previous.put(member, value);
+        if (value instanceof Object[] && previousValue instanceof Object[]) {
+            return !Arrays.deepEquals((Object[]) value, (Object[]) previousValue);
+        }
+        return previousValue == null || !Objects.equals(value, previousValue);
+    }
+
+    /**
+     * In delta mode, forgets the baseline of stats which are no longer reported.
+     */
+    void retainOnly(Set<String> statsIds) {
+        if (deltaBaseline != null) {
+            deltaBaseline.keySet().retainAll(statsIds);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.oney.WebRTCModule;
+
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import org.webrtc.PeerConnection;
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically collects the stats of a PeerConnection and pushes a compact
+ * summary with derived rates (bitrate, frame rate, packet loss) to JS as a
+ * <tt>peerConnectionStatsSample</tt> event.
+ *
+ * <p>Rates are computed from the stats' own timestamps, so a late tick doesn't
+ * skew them. Polling is driven by a native timer shared by all samplers, so
+ * the cadence doesn't depend on the JS thread either. A tick is skipped while
+ * the previous sample hasn't completed, e.g. behind a slow renegotiation on
+ * the peer connection's lane, so samples never pile up.
+ */
+class StatsSampler {
+    private static final String TAG = WebRTCModule.TAG;
+
+    static final int MIN_INTERVAL_MS = 100;
+
+    private static Timer sharedTimer;
+
+    private static synchronized Timer getSharedTimer() {
+        if (sharedTimer == null) {
+            sharedTimer = new Timer("StatsSampler", /* isDaemon */ true);
+        }
+        return sharedTimer;
+    }
+
+    private final WebRTCModule webRTCModule;
+    private final PeerConnectionObserver pco;
+    private final int peerConnectionId;
+
+    private TimerTask task;
+    private int intervalMs;
+    /** Set from a tick until its sample is sent (or given up on). */
+    private final AtomicBoolean samplePending = new AtomicBoolean();
+    /** Null unless quality scoring was requested. */
+    private QualityScorer qualityScorer;
+
+    /**
+     * Stats id -> counters from the previous sample. Only touched from the
+     * getStats callback, which libwebrtc invokes on the signaling thread.
+     */
+    private final Map<String, Counters> previous = new HashMap<>();
+    private final Map<String, Counters> current = new HashMap<>();
+
+    StatsSampler(WebRTCModule webRTCModule, PeerConnectionObserver pco, int peerConnectionId) {
+        this.webRTCModule = webRTCModule;
+        this.pco = pco;
+        this.peerConnectionId = peerConnectionId;
+    }
+
+    /**
+     * Starts sampling every <tt>intervalMs</tt>, replacing any previous
+     * schedule. A value of 0 or less stops sampling.
+     *
+     * @param qualityScoring whether to add a {@link QualityScorer} result to
+     *                       each sample
+     */
+    synchronized void start(int intervalMs, boolean qualityScoring) {
+        stop();
+        if (intervalMs <= 0) {
+            return;
+        }
+
+        if (!qualityScoring) {
+            qualityScorer = null;
+        } else if (qualityScorer == null) {
+            qualityScorer = new QualityScorer();
+        }
+
+        this.intervalMs = Math.max(MIN_INTERVAL_MS, intervalMs);
+        samplePending.set(false);
+        task = new TimerTask() {
+            @Override
+            public void run() {
+                if (!samplePending.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    ThreadUtils.runOnExecutor(peerConnectionId, "statsSample", StatsSampler.this::sample);
+                } catch (Exception e) {
+                    // Don't let one peer connection take the shared timer down.
+                    samplePending.set(false);
+                    Log.w(TAG, "Failed to schedule stats sample for PeerConnection " + peerConnectionId, e);
+                }
+            }
+        };
+        getSharedTimer().scheduleAtFixedRate(task, this.intervalMs, this.intervalMs);
+    }
+
+    synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            getSharedTimer().purge();
+        }
+    }
+
+    synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    private void sample() {
+        PeerConnection peerConnection = pco.getPeerConnection();
+        if (peerConnection == null || !isRunning()) {
+            samplePending.set(false);
+            return;
+        }
+
+        try {
+            peerConnection.getStats(report -> {
+                try {
+                    if (isRunning()) {
+                        webRTCModule.sendEvent("peerConnectionStatsSample", summarize(report));
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Failed to summarize stats for PeerConnection " + peerConnectionId, e);
+                } finally {
+                    samplePending.set(false);
+                }
+            });
+        } catch (Exception e) {
+            // The peer connection was disposed meanwhile.
+            samplePending.set(false);
+            Log.w(TAG, "Failed to get stats for PeerConnection " + peerConnectionId, e);
+        }
+    }
+
+    private synchronized WritableMap summarize(RTCStatsReport report) {
+        Summary audioIn = new Summary();
+        Summary audioOut = new Summary();
+        Summary videoIn = new Summary();
+        Summary videoOut = new Summary();
+        double roundTripTime = -1;
+        double availableOutgoingBitrate = -1;
+        double timestampMs = report.getTimestampUs() / 1000.0;
+
+        current.clear();
+
+        for (RTCStats stats : report.getStatsMap().values()) {
+            Map<String, Object> members = stats.getMembers();
+            switch (stats.getType()) {
+                case "inbound-rtp": {
+                    boolean video = "video".equals(members.get("kind"));
+                    Counters counters = new Counters(stats.getTimestampUs(),
+                            number(members.get("bytesReceived")),
+                            number(members.get("packetsReceived")),
+                            number(members.get("packetsLost")),
+                            number(members.get("framesDecoded")));
+                    accumulate(video ? videoIn : audioIn, stats, counters);
+                    break;
+                }
+                case "outbound-rtp": {
+                    boolean video = "video".equals(members.get("kind"));
+                    Counters counters = new Counters(stats.getTimestampUs(),
+                            number(members.get("bytesSent")),
+                            number(members.get("packetsSent")),
+                            0,
+                            number(members.get("framesEncoded")));
+                    accumulate(video ? videoOut : audioOut, stats, counters);
+                    break;
+                }
+                case "remote-inbound-rtp": {
+                    // The remote end's view of what we send.
+                    boolean video = "video".equals(members.get("kind"));
+                    Object fractionLost = members.get("fractionLost");
+                    if (fractionLost instanceof Number) {
+                        Summary summary = video ? videoOut : audioOut;
+                        summary.packetLoss = Math.max(summary.packetLoss, ((Number) fractionLost).doubleValue() * 100);
+                    }
+                    break;
+                }
+                case "candidate-pair": {
+                    if (!Boolean.TRUE.equals(members.get("nominated"))
+                            || !"succeeded".equals(members.get("state"))) {
+                        break;
+                    }
+                    Object rtt = members.get("currentRoundTripTime");
+                    if (rtt instanceof Number) {
+                        roundTripTime = ((Number) rtt).doubleValue();
+                    }
+                    Object bitrate = members.get("availableOutgoingBitrate");
+                    if (bitrate instanceof Number) {
+                        availableOutgoingBitrate = ((Number) bitrate).doubleValue();
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        // Swap, so streams which went away are forgotten.
+        previous.clear();
+        previous.putAll(current);
+
+        WritableMap params = Arguments.createMap();
+        params.putInt("pcId", peerConnectionId);
+        params.putDouble("timestamp", timestampMs);
+        params.putInt("intervalMs", intervalMs);
+
+        WritableMap audio = Arguments.createMap();
+        audio.putMap("inbound", audioIn.toWritableMap(false, true));
+        audio.putMap("outbound", audioOut.toWritableMap(false, false));
+        params.putMap("audio", audio);
+
+        WritableMap video = Arguments.createMap();
+        video.putMap("inbound", videoIn.toWritableMap(true, true));
+        video.putMap("outbound", videoOut.toWritableMap(true, false));
+        params.putMap("video", video);
+
+        if (roundTripTime >= 0) {
+            params.putDouble("roundTripTime", roundTripTime);
+        }
+        if (availableOutgoingBitrate >= 0) {
+            params.putDouble("availableOutgoingBitrate", availableOutgoingBitrate);
+        }
+
+        if (qualityScorer != null) {
+            qualityScorer.update(report, roundTripTime);
+            params.putMap("quality", qualityScorer.toWritableMap());
+        }
+
+        return params;
+    }
+
+    private void accumulate(Summary summary, RTCStats stats, Counters counters) {
+        Map<String, Object> members = stats.getMembers();
+        current.put(stats.getId(), counters);
+        summary.streams++;
+
+        Object width = members.get("frameWidth");
+        Object height = members.get("frameHeight");
+        if (width instanceof Number && height instanceof Number) {
+            int w = ((Number) width).intValue();
+            int h = ((Number) height).intValue();
+            if ((long) w * h > (long) summary.frameWidth * summary.frameHeight) {
+                summary.frameWidth = w;
+                summary.frameHeight = h;
+            }
+        }
+
+        Object jitter = members.get("jitter");
+        if (jitter instanceof Number) {
+            summary.jitter = Math.max(summary.jitter, ((Number) jitter).doubleValue());
+        }
+
+        Counters last = previous.get(stats.getId());
+        if (last == null) {
+            return;
+        }
+        double seconds = (counters.timestampUs - last.timestampUs) / 1_000_000.0;
+        if (seconds <= 0) {
+            return;
+        }
+
+        summary.bitrate += Math.max(0, counters.bytes - last.bytes) * 8 / seconds;
+        summary.frameRate = Math.max(summary.frameRate, Math.max(0, counters.frames - last.frames) / seconds);
+        summary.packets += Math.max(0, counters.packets - last.packets);
+        summary.packetsLost += Math.max(0, counters.lost - last.lost);
+        summary.hasRates = true;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static final class Counters {
+        final long timestampUs;
+        final double bytes;
+        final double packets;
+        final double lost;
+        final double frames;
+
+        Counters(long timestampUs, double bytes, double packets, double lost, double frames) {
+            this.timestampUs = timestampUs;
+            this.bytes = bytes;
+            this.packets = packets;
+            this.lost = lost;
+            this.frames = frames;
+        }
+    }
+
+    /**
+     * Aggregate of all streams of one kind and direction.
+     */
+    private static final class Summary {
+        int streams;
+        boolean hasRates;
+        double bitrate;
+        double frameRate;
+        double packets;
+        double packetsLost;
+        double packetLoss = -1;
+        double jitter = -1;
+        int frameWidth;
+        int frameHeight;
+
+        WritableMap toWritableMap(boolean video, boolean inbound) {
+            WritableMap map = Arguments.createMap();
+            map.putInt("streams", streams);
+            if (hasRates) {
+                map.putDouble("bitrate", bitrate);
+                if (video) {
+                    map.putDouble("frameRate", frameRate);
+                }
+                if (inbound) {
+                    double expected = packets + packetsLost;
+                    map.putDouble("packetLoss", expected > 0 ? packetsLost * 100 / expected : 0);
+                }
+            }
+            if (!inbound && packetLoss >= 0) {
+                map.putDouble("packetLoss", packetLoss);
+            }
+            if (inbound && jitter >= 0) {
+                map.putDouble("jitter", jitter);
+            }
+            if (video && frameWidth > 0) {
+                map.putInt("frameWidth", frameWidth);
+                map.putInt("frameHeight", frameHeight);
+            }
+            return map;
+        }
+    }
+}
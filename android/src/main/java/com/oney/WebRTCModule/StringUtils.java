@@ -2,15 +2,32 @@ package com.oney.WebRTCModule;
 
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import org.webrtc.PeerConnection;
 import org.webrtc.RTCStats;
 import org.webrtc.RTCStatsReport;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StringUtils {
     private static final String TAG = StringUtils.class.getSimpleName();
 
+    /**
+     * Stats member names come from a small, fixed set, so their escaped
+     * <tt>"name":</tt> fragments are built once and reused. The cap only guards
+     * against unexpected growth.
+     */
+    private static final int MAX_INTERNED_KEYS = 1024;
+    private static final Map<String, String> keyFragments = new ConcurrentHashMap<>();
+
+    /**
+     * Length of the most recently serialized report, used to size the builder
+     * for the next one so polling doesn't keep regrowing it.
+     */
+    private static volatile int lastReportLength = 1024;
+
     /**
      * Constructs a JSON <tt>String</tt> representation of a specific array of
      * <tt>RTCStatsReport</tt>s (produced by {@link PeerConnection#getStats}).
@@ -21,39 +38,83 @@ public class StringUtils {
      * in JSON format
      */
     public static String statsToJSON(RTCStatsReport report) {
-        StringBuilder builder = new StringBuilder("[");
+        return statsToJSON(report, null);
+    }
+
+    /**
+     * Constructs a JSON <tt>String</tt> representation of the stats and members
+     * of <tt>report</tt> selected by <tt>filter</tt>, in the same format as
+     * {@link #statsToJSON(RTCStatsReport)}.
+     * <p>
+     * @param report the <tt>RTCStatsReport</tt>s to represent in JSON format
+     * @param filter selects the stats types and members to include, and whether
+     *               to include only values which changed since the previous poll;
+     *               <tt>null</tt> includes everything
+     * @return a <tt>String</tt> which represents the selected part of
+     * <tt>report</tt> in JSON format
+     */
+    static String statsToJSON(RTCStatsReport report, @Nullable StatsFilter filter) {
+        Map<String, RTCStats> statsMap = report.getStatsMap();
+
+        int expectedLength = lastReportLength;
+        StringBuilder builder = new StringBuilder(expectedLength + (expectedLength >> 3));
+        builder.append('[');
 
         boolean firstKey = true;
 
-        Map<String, RTCStats> statsMap = report.getStatsMap();
+        for (Map.Entry<String, RTCStats> statsEntry : statsMap.entrySet()) {
+            RTCStats stats = statsEntry.getValue();
+            String type = stats.getType();
+            if (filter != null && !filter.includesType(type)) {
+                continue;
+            }
 
-        for (String key : report.getStatsMap().keySet()) {
-            if (firstKey) {
-                firstKey = false;
-            } else {
-                builder.append(",");
+            int entryStart = builder.length();
+            if (!firstKey) {
+                builder.append(',');
             }
 
-            builder.append("[\"").append(key).append("\",{");
+            builder.append('[');
+            appendString(builder, statsEntry.getKey());
+            builder.append(",{");
 
-            RTCStats stats = statsMap.get(key);
-            builder.append("\"timestamp\":")
-                    .append(stats.getTimestampUs() / 1000.0)
-                    .append(",\"type\":\"")
-                    .append(stats.getType())
-                    .append("\",\"id\":\"")
-                    .append(stats.getId())
-                    .append("\"");
+            builder.append("\"timestamp\":").append(stats.getTimestampUs() / 1000.0).append(",\"type\":");
+            appendString(builder, type);
+            builder.append(",\"id\":");
+            appendString(builder, stats.getId());
 
+            boolean anyMember = false;
             for (Map.Entry<String, Object> entry : stats.getMembers().entrySet()) {
-                builder.append(",").append("\"").append(entry.getKey()).append("\":");
-                appendValue(builder, entry.getValue());
+                String member = entry.getKey();
+                Object value = entry.getValue();
+                if (filter != null
+                        && (!filter.includesMember(type, member) || !filter.changed(stats.getId(), member, value))) {
+                    continue;
+                }
+
+                anyMember = true;
+                builder.append(',');
+                appendKey(builder, member);
+                appendValue(builder, value);
+            }
+
+            if (!anyMember && filter != null && filter.isDeltaOnly()) {
+                // Nothing changed for this stats object, drop it altogether.
+                builder.setLength(entryStart);
+                continue;
             }
 
             builder.append("}]");
+            firstKey = false;
         }
 
-        builder.append("]");
+        builder.append(']');
+
+        if (filter != null) {
+            filter.retainOnly(statsMap.keySet());
+        } else {
+            lastReportLength = builder.length();
+        }
 
         return builder.toString();
     }
@@ -61,41 +122,110 @@ public class StringUtils {
     private static void appendValue(StringBuilder builder, Object value) {
         if (value instanceof Object[]) {
             Object[] arrayValue = (Object[]) value;
-            builder.append("[");
+            builder.append('[');
 
             for (int i = 0; i < arrayValue.length; ++i) {
                 if (i != 0) {
-                    builder.append(",");
+                    builder.append(',');
                 }
 
                 appendValue(builder, arrayValue[i]);
             }
 
-            builder.append("]");
+            builder.append(']');
         } else if (value instanceof Map) {
             try {
                 Map<String, Object> mapValue = (Map) value;
 
                 boolean firstKey = true;
-                builder.append("{");
+                builder.append('{');
 
                 for (Map.Entry<String, Object> entry : mapValue.entrySet()) {
                     if (firstKey) {
                         firstKey = false;
                     } else {
-                        builder.append(",");
+                        builder.append(',');
                     }
-                    builder.append("\"").append(entry.getKey()).append("\":");
+                    appendKey(builder, entry.getKey());
                     appendValue(builder, entry.getValue());
                 }
-                builder.append("}");
+                builder.append('}');
             } catch (ClassCastException e) {
                 Log.e(TAG, "Error parsing stats value " + value);
             }
         } else if (value instanceof String) {
-            builder.append("\"").append(value).append("\"");
+            appendString(builder, (String) value);
+        } else if ((value instanceof Double && !Double.isFinite((Double) value))
+                || (value instanceof Float && !Float.isFinite((Float) value))) {
+            // NaN and Infinity are not valid JSON.
+            builder.append("null");
         } else {
             builder.append(value);
         }
     }
-}
\ No newline at end of file
+
+    private static void appendKey(StringBuilder builder, String key) {
+        String fragment = keyFragments.get(key);
+        if (fragment == null) {
+            StringBuilder fragmentBuilder = new StringBuilder(key.length() + 3);
+            appendString(fragmentBuilder, key);
+            fragment = fragmentBuilder.append(':').toString();
+            if (keyFragments.size() < MAX_INTERNED_KEYS) {
+                keyFragments.put(key, fragment);
+            }
+        }
+        builder.append(fragment);
+    }
+
+    /**
+     * Appends the given string as a quoted JSON string, escaping quotes,
+     * backslashes and control characters.
+     */
+    static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+
+            builder.append(value, start, i);
+            start = i + 1;
+
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                default:
+                    builder.append("\\u00");
+                    builder.append(Character.forDigit(c >> 4, 16));
+                    builder.append(Character.forDigit(c & 0xF, 16));
+                    break;
+            }
+        }
+        builder.append(value, start, length);
+
+        builder.append('"');
+    }
+}
@@ -1,41 +1,256 @@
 package com.oney.WebRTCModule;
 
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 final class ThreadUtils {
     /**
-     * Thread which will be used to call all WebRTC PeerConnection APIs. They
+     * Lane key for operations which are not tied to a single PeerConnection
+     * (factory lifecycle, getUserMedia, local streams and tracks, etc.). Local
+     * tracks use a pcId of -1 on the JS side, so they map onto this lane too.
+     */
+    static final int SHARED_LANE = -1;
+
+    /**
+     * Threads which will be used to call all WebRTC PeerConnection APIs. They
      * they don't run on the calling thread anyway, we are deferring the calls
-     * to this thread to avoid (potentially) blocking the calling thread.
+     * to these threads to avoid (potentially) blocking the calling thread.
+     *
+     * Tasks are never handed to this pool directly, they always go through a
+     * {@link SerialExecutor} lane: tasks for the same lane run in submission
+     * order, one at a time, while different lanes (i.e. different
+     * PeerConnections) make progress in parallel.
      */
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final ExecutorService workers = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "WebRTCModule-lane-" + count.incrementAndGet());
+        }
+    });
+
+    private static final SerialExecutor sharedLane = new SerialExecutor();
+
+    private static final ConcurrentHashMap<Integer, SerialExecutor> lanes = new ConcurrentHashMap<>();
 
     /**
-     * Runs the given {@link Runnable} on the executor.
+     * Every lane task runs holding the read lock; exclusive tasks (which tear
+     * down or rebuild state shared by all lanes, like the factory) hold the
+     * write lock, so they wait for in-flight lane tasks and hold off new ones.
+     */
+    private static final ReadWriteLock exclusiveLock = new ReentrantReadWriteLock();
+
+    /**
+     * Queue depth and per-operation latency instrumentation. Disabled by default.
+     */
+    static final ExecutorMetrics metrics = new ExecutorMetrics();
+
+    /**
+     * Runs the given {@link Runnable} on the shared lane.
      * @param runnable
      */
     public static void runOnExecutor(Runnable runnable) {
-        executor.execute(runnable);
+        runOnExecutor(SHARED_LANE, null, runnable);
     }
 
     /**
-     * Submits the given {@link Callable} to be run on the executor.
+     * Runs the given {@link Runnable} on the lane for the given key, typically
+     * a PeerConnection id.
+     * @param laneKey
+     * @param runnable
+     */
+    public static void runOnExecutor(int laneKey, Runnable runnable) {
+        runOnExecutor(laneKey, null, runnable);
+    }
+
+    /**
+     * Runs the given {@link Runnable} on the lane for the given key, recording
+     * it under the given operation name when metrics are enabled.
+     * @param laneKey
+     * @param operation
+     * @param runnable
+     */
+    public static void runOnExecutor(int laneKey, String operation, Runnable runnable) {
+        laneFor(laneKey).execute(metrics.wrap(operation, runnable));
+    }
+
+    /**
+     * Submits the given {@link Callable} to be run on the shared lane.
      * @param callable
      * @return Future.
      */
     public static <T> Future<T> submitToExecutor(Callable<T> callable) {
-        return executor.submit(callable);
+        return submitToExecutor(SHARED_LANE, null, callable);
     }
 
     /**
-     * Submits the given {@link Runnable} to be run on the executor.
+     * Submits the given {@link Runnable} to be run on the shared lane.
      * @param runnable
      * @return Future.
      */
     public static Future<?> submitToExecutor(Runnable runnable) {
-        return executor.submit(runnable);
+        FutureTask<Void> task = new FutureTask<>(runnable, null);
+        sharedLane.execute(metrics.wrap(null, task));
+        return task;
+    }
+
+    /**
+     * Submits the given {@link Callable} to be run on the lane for the given
+     * key, typically a PeerConnection id.
+     * @param laneKey
+     * @param callable
+     * @return Future.
+     */
+    public static <T> Future<T> submitToExecutor(int laneKey, Callable<T> callable) {
+        return submitToExecutor(laneKey, null, callable);
+    }
+
+    /**
+     * Submits the given {@link Callable} to be run on the lane for the given
+     * key, recording it under the given operation name when metrics are enabled.
+     * @param laneKey
+     * @param operation
+     * @param callable
+     * @return Future.
+     */
+    public static <T> Future<T> submitToExecutor(int laneKey, String operation, Callable<T> callable) {
+        FutureTask<T> task = new FutureTask<>(callable);
+        laneFor(laneKey).execute(metrics.wrap(operation, task));
+        return task;
+    }
+
+    /**
+     * Waits for a task submitted by a synchronous (JS thread blocking) method,
+     * recording how long the calling thread was blocked under the given
+     * operation name when metrics are enabled.
+     * @param operation
+     * @param future
+     * @return the task's result.
+     */
+    public static <T> T awaitBlocking(String operation, Future<T> future)
+            throws ExecutionException, InterruptedException {
+        if (!metrics.isEnabled()) {
+            return future.get();
+        }
+
+        long startNs = SystemClock.elapsedRealtimeNanos();
+        try {
+            return future.get();
+        } finally {
+            metrics.recordBlocked(operation, SystemClock.elapsedRealtimeNanos() - startNs);
+        }
+    }
+
+    /**
+     * Runs the given {@link Runnable} on the shared lane while no other lane is
+     * running anything. Use it for operations which touch state owned by every
+     * lane, like disposing the factory together with its PeerConnections.
+     * @param operation
+     * @param runnable
+     */
+    public static void runExclusive(String operation, Runnable runnable) {
+        sharedLane.executeExclusive(metrics.wrap(operation, runnable));
+    }
+
+    /**
+     * Submits the given {@link Callable} to be run exclusively, see
+     * {@link #runExclusive(String, Runnable)}.
+     * @param operation
+     * @param callable
+     * @return Future.
+     */
+    public static <T> Future<T> submitExclusive(String operation, Callable<T> callable) {
+        FutureTask<T> task = new FutureTask<>(callable);
+        sharedLane.executeExclusive(metrics.wrap(operation, task));
+        return task;
+    }
+
+    /**
+     * Forgets the lane for the given key. Tasks already queued on it still run;
+     * anything submitted afterwards starts a fresh lane. Call it once the
+     * PeerConnection owning the lane has been disposed.
+     * @param laneKey
+     */
+    public static void releaseLane(int laneKey) {
+        if (laneKey != SHARED_LANE) {
+            lanes.remove(laneKey);
+        }
+    }
+
+    private static SerialExecutor laneFor(int laneKey) {
+        if (laneKey == SHARED_LANE) {
+            return sharedLane;
+        }
+
+        SerialExecutor lane = lanes.get(laneKey);
+        if (lane == null) {
+            lane = lanes.computeIfAbsent(laneKey, k -> new SerialExecutor());
+        }
+        return lane;
+    }
+
+    /**
+     * Runs tasks one at a time, in submission order, on the shared worker pool.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        @Override
+        public void execute(Runnable runnable) {
+            enqueue(() -> {
+                exclusiveLock.readLock().lock();
+                try {
+                    runnable.run();
+                } finally {
+                    exclusiveLock.readLock().unlock();
+                }
+            });
+        }
+
+        void executeExclusive(Runnable runnable) {
+            enqueue(() -> {
+                exclusiveLock.writeLock().lock();
+                try {
+                    runnable.run();
+                } finally {
+                    exclusiveLock.writeLock().unlock();
+                }
+            });
+        }
+
+        private synchronized void enqueue(Runnable runnable) {
+            tasks.add(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                workers.execute(active);
+            }
+        }
     }
 }
@@ -0,0 +1,211 @@
+package com.oney.WebRTCModule;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import org.webrtc.EglBase;
+import org.webrtc.RendererCommon.RendererEvents;
+import org.webrtc.SurfaceViewRenderer;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Hands out initialized {@link VideoViewRenderer}s to {@link WebRTCView}s and
+ * keeps up to {@link WebRTCModuleOptions#videoRendererPoolSize} of them around
+ * once the views are done with them, so views mounted and unmounted while a
+ * list scrolls reuse a renderer instead of creating and tearing down an EGL
+ * context (and render thread) each time.
+ *
+ * <p>A renderer is bound to its {@link RendererEvents} when it is initialized,
+ * so the pool initializes it with a forwarder which is pointed at the view
+ * currently using it.
+ *
+ * <p>Used on the UI thread.
+ */
+final class VideoRendererPool {
+    private static final String TAG = WebRTCModule.TAG;
+
+    private static VideoRendererPool instance;
+
+    static synchronized VideoRendererPool getInstance() {
+        if (instance == null) {
+            instance = new VideoRendererPool();
+        }
+        return instance;
+    }
+
+    /** Idle renderers, most recently released last. */
+    private final ArrayDeque<VideoViewRenderer> idle = new ArrayDeque<>();
+    /** Every live renderer created by this pool, idle or in use. */
+    private final Map<VideoViewRenderer, ForwardingRendererEvents> events = new IdentityHashMap<>();
+
+    private long hits;
+    private long misses;
+    private long inits;
+    private long totalInitNs;
+    private long maxInitNs;
+
+    private VideoRendererPool() {}
+
+    /**
+     * Returns an initialized renderer reporting to the given events, or
+     * {@code null} if a new one was needed and couldn't be initialized.
+     */
+    @Nullable
+    synchronized VideoViewRenderer acquire(Context context, RendererEvents rendererEvents) {
+        for (Iterator<VideoViewRenderer> it = idle.descendingIterator(); it.hasNext();) {
+            VideoViewRenderer renderer = it.next();
+            // Views keep a reference to their context, don't move them across contexts.
+            if (renderer.getView().getContext() == context) {
+                it.remove();
+                hits++;
+                renderer.resume();
+                events.get(renderer).setTarget(rendererEvents);
+                return renderer;
+            }
+        }
+
+        misses++;
+        EglBase.Context sharedContext = EglUtils.getRootEglBaseContext();
+        if (sharedContext == null) {
+            // If SurfaceViewRenderer#init() is invoked, it will throw a
+            // RuntimeException which will very likely kill the application.
+            Log.e(TAG, "Failed to render a VideoTrack!");
+            return null;
+        }
+
+        // With WebRTCModuleOptions#videoViewsPerRenderThread set, views share
+        // a few render threads instead of running one each.
+        VideoViewRenderer renderer = WebRTCModuleOptions.getInstance().videoViewsPerRenderThread > 0
+                ? new SharedThreadVideoRenderer(context)
+                : new VideoViewRenderer.Dedicated(new SurfaceViewRenderer(context));
+        ForwardingRendererEvents forwarder = new ForwardingRendererEvents();
+        long startNs = SystemClock.elapsedRealtimeNanos();
+        try {
+            renderer.init(sharedContext, forwarder);
+        } catch (Exception e) {
+            // Creating the EGL context can fail, probably due to memory
+            // limitations; log how many renderers were alive at that point.
+            Log.e(TAG, "Failed to initialize a video renderer with " + events.size() + " alive", e);
+            return null;
+        }
+        long initNs = SystemClock.elapsedRealtimeNanos() - startNs;
+        inits++;
+        totalInitNs += initNs;
+        maxInitNs = Math.max(maxInitNs, initNs);
+
+        events.put(renderer, forwarder);
+        forwarder.setTarget(rendererEvents);
+        return renderer;
+    }
+
+    /**
+     * Takes a renderer back from a view. The view must have removed it from
+     * the video track and from its own hierarchy already.
+     */
+    synchronized void release(VideoViewRenderer renderer) {
+        ForwardingRendererEvents forwarder = events.get(renderer);
+        if (forwarder != null) {
+            forwarder.setTarget(null);
+        }
+        detachFromParent(renderer);
+
+        int poolSize = WebRTCModuleOptions.getInstance().videoRendererPoolSize;
+        if (forwarder != null && poolSize > 0) {
+            renderer.pause();
+            renderer.clearImage();
+            idle.addLast(renderer);
+            while (idle.size() > poolSize) {
+                destroy(idle.removeFirst());
+            }
+            return;
+        }
+        destroy(renderer);
+    }
+
+    /** Releases every idle renderer, e.g. when the module goes away. */
+    synchronized void clear() {
+        while (!idle.isEmpty()) {
+            destroy(idle.removeFirst());
+        }
+    }
+
+    private void destroy(VideoViewRenderer renderer) {
+        events.remove(renderer);
+        renderer.release();
+    }
+
+    private static void detachFromParent(VideoViewRenderer renderer) {
+        ViewParent parent = renderer.getView().getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(renderer.getView());
+        }
+    }
+
+    /**
+     * @return <tt>{poolSize, idle, alive, hits, misses, inits, avgInitMs, maxInitMs}</tt>
+     */
+    synchronized WritableMap getStats(boolean reset) {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("poolSize", WebRTCModuleOptions.getInstance().videoRendererPoolSize);
+        stats.putInt("idle", idle.size());
+        stats.putInt("alive", events.size());
+        stats.putDouble("hits", hits);
+        stats.putDouble("misses", misses);
+        stats.putDouble("inits", inits);
+        stats.putDouble("avgInitMs", inits == 0 ? 0 : totalInitNs / (double) inits / 1_000_000.0);
+        stats.putDouble("maxInitMs", maxInitNs / 1_000_000.0);
+        if (reset) {
+            hits = misses = inits = totalInitNs = maxInitNs = 0;
+        }
+        return stats;
+    }
+
+    /**
+     * Forwards renderer events to the view currently using the renderer. The
+     * last resolution is replayed to a new view, since a reused renderer only
+     * reports it again when it changes.
+     */
+    private static final class ForwardingRendererEvents implements RendererEvents {
+        @Nullable
+        private RendererEvents target;
+        private int frameWidth;
+        private int frameHeight;
+        private int frameRotation;
+
+        synchronized void setTarget(@Nullable RendererEvents target) {
+            this.target = target;
+            if (target != null && frameWidth > 0 && frameHeight > 0) {
+                target.onFrameResolutionChanged(frameWidth, frameHeight, frameRotation);
+            }
+        }
+
+        @Override
+        public synchronized void onFirstFrameRendered() {
+            if (target != null) {
+                target.onFirstFrameRendered();
+            }
+        }
+
+        @Override
+        public synchronized void onFrameResolutionChanged(int videoWidth, int videoHeight, int rotation) {
+            frameWidth = videoWidth;
+            frameHeight = videoHeight;
+            frameRotation = rotation;
+            if (target != null) {
+                target.onFrameResolutionChanged(videoWidth, videoHeight, rotation);
+            }
+        }
+    }
+}
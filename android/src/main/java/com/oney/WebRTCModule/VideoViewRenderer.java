@@ -0,0 +1,97 @@
+package com.oney.WebRTCModule;
+
+import android.view.SurfaceView;
+
+import org.webrtc.EglBase;
+import org.webrtc.RendererCommon.RendererEvents;
+import org.webrtc.RendererCommon.ScalingType;
+import org.webrtc.SurfaceViewRenderer;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+
+/**
+ * The {@link SurfaceView} and {@link VideoSink} a {@link WebRTCView} renders
+ * its video track with. Lets the view switch between a
+ * {@link SurfaceViewRenderer} with a render thread of its own and a
+ * {@link SharedThreadVideoRenderer}.
+ */
+interface VideoViewRenderer extends VideoSink {
+    SurfaceView getView();
+
+    void init(EglBase.Context sharedContext, RendererEvents rendererEvents);
+
+    void release();
+
+    void setMirror(boolean mirror);
+
+    void setScalingType(ScalingType scalingType);
+
+    void clearImage();
+
+    /**
+     * Stops rendering incoming frames. Used while the renderer waits in the
+     * {@link VideoRendererPool}. Whether the first frame after
+     * {@link #resume()} is reported through the {@link RendererEvents} again
+     * depends on the implementation, so views must not rely on it.
+     */
+    void pause();
+
+    void resume();
+
+    /**
+     * The default renderer, a {@link SurfaceViewRenderer} with its own render
+     * thread.
+     */
+    final class Dedicated implements VideoViewRenderer {
+        private final SurfaceViewRenderer renderer;
+
+        Dedicated(SurfaceViewRenderer renderer) {
+            this.renderer = renderer;
+        }
+
+        @Override
+        public SurfaceView getView() {
+            return renderer;
+        }
+
+        @Override
+        public void init(EglBase.Context sharedContext, RendererEvents rendererEvents) {
+            renderer.init(sharedContext, rendererEvents);
+        }
+
+        @Override
+        public void release() {
+            renderer.release();
+        }
+
+        @Override
+        public void setMirror(boolean mirror) {
+            renderer.setMirror(mirror);
+        }
+
+        @Override
+        public void setScalingType(ScalingType scalingType) {
+            renderer.setScalingType(scalingType);
+        }
+
+        @Override
+        public void clearImage() {
+            renderer.clearImage();
+        }
+
+        @Override
+        public void pause() {
+            renderer.pauseVideo();
+        }
+
+        @Override
+        public void resume() {
+            renderer.disableFpsReduction();
+        }
+
+        @Override
+        public void onFrame(VideoFrame frame) {
+            renderer.onFrame(frame);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.oney.WebRTCModule;
 
 import android.util.Log;
 import android.util.Pair;
-import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -17,10 +16,13 @@ import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.UiThreadUtil;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.oney.WebRTCModule.audio.AudioProcessingAdapter;
+import com.oney.WebRTCModule.audio.AudioProcessingController;
 import com.oney.WebRTCModule.webrtcutils.SelectiveVideoDecoderFactory;
 
 import org.webrtc.*;
@@ -32,8 +34,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Callable;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @ReactModule(name = "WebRTCModule")
 public class WebRTCModule extends ReactContextBaseJavaModule {
@@ -51,7 +57,8 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     private AudioProcessingFactory audioProcessingFactory;
 
     // Need to expose the peer connection codec factories here to get capabilities
-    private final SparseArray<PeerConnectionObserver> mPeerConnectionObservers;
+    // Concurrent: each PeerConnection's operations run on their own executor lane.
+    private final Map<Integer, PeerConnectionObserver> mPeerConnectionObservers;
     final Map<String, MediaStream> localStreams;
 
     // Store generated certificates by ID to avoid exposing private keys to JS
@@ -62,14 +69,33 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     @Nullable
     private RTCCameraPreviewView activeCameraPreview;
 
+    // Remote tracks and streams of all PeerConnections, by id / react tag.
+    private final RemoteMediaIndex remoteMediaIndex = new RemoteMediaIndex();
+
+    // Batches and coalesces events sent to JS, see EventBus.
+    private final EventBus eventBus;
+
+    // Periodic "executorMetrics" reporting, only running while requested from JS.
+    @Nullable
+    private Timer executorMetricsTimer;
+
     public WebRTCModule(ReactApplicationContext reactContext) {
         super(reactContext);
 
-        mPeerConnectionObservers = new SparseArray<>();
-        localStreams = new HashMap<>();
+        mPeerConnectionObservers = new ConcurrentHashMap<>();
+        localStreams = new ConcurrentHashMap<>();
 
         WebRTCModuleOptions options = WebRTCModuleOptions.getInstance();
 
+        eventBus = new EventBus((eventName, params) -> {
+            if (getReactApplicationContext().hasActiveReactInstance()) {
+                getReactApplicationContext()
+                        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(eventName, params);
+            }
+        });
+        eventBus.setEnabled(options.enableEventBatching);
+
         VideoEncoderFactory encoderFactory = options.videoEncoderFactory;
         VideoDecoderFactory decoderFactory = options.videoDecoderFactory;
         Loggable injectableLogger = options.injectableLogger;
@@ -128,7 +154,8 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void createCallFactory(ReadableMap options, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        // Exclusive: may tear down a stale default factory together with its PeerConnections.
+        ThreadUtils.runExclusive("createCallFactory", () -> {
             try {
                 boolean bypassVoiceProcessing = options != null && options.hasKey("bypassVoiceProcessing")
                         && options.getBoolean("bypassVoiceProcessing");
@@ -152,7 +179,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void disposeCallFactory(Promise promise) {
-        ThreadUtils.runOnExecutor(() -> promise.resolve(disposeCurrentFactoryOrdered()));
+        ThreadUtils.runExclusive("disposeCallFactory", () -> promise.resolve(disposeCurrentFactoryOrdered()));
     }
 
     /**
@@ -188,6 +215,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                     mPeerConnectionObservers.remove(pcId);
                 }
                 factoryRegistry.unbindPeerConnection(pcId);
+                ThreadUtils.releaseLane(pcId);
             } catch (Exception e) {
                 Log.w(TAG, "disposeCurrentFactoryOrdered(): error disposing pc " + pcId, e);
             }
@@ -208,18 +236,24 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     public void invalidate() {
         Log.d(TAG, "invalidate()");
 
+        // Stop the periodic report, it would keep sending to this dead
+        // context, and turn the (static) instrumentation off for the next one.
+        executorMetricsSetEnabled(false, 0);
+
         try {
             ThreadUtils
-                    .submitToExecutor(() -> {
+                    .submitExclusive("invalidate", () -> {
                         // 1. Dispose PeerConnections (dispose() calls close() internally)
-                        for (int i = 0; i < mPeerConnectionObservers.size(); i++) {
+                        for (Map.Entry<Integer, PeerConnectionObserver> entry : mPeerConnectionObservers.entrySet()) {
                             try {
-                                mPeerConnectionObservers.valueAt(i).dispose();
+                                entry.getValue().dispose();
                             } catch (Exception e) {
-                                Log.w(TAG, "invalidate(): error disposing PC " + mPeerConnectionObservers.keyAt(i), e);
+                                Log.w(TAG, "invalidate(): error disposing PC " + entry.getKey(), e);
                             }
+                            ThreadUtils.releaseLane(entry.getKey());
                         }
                         mPeerConnectionObservers.clear();
+                        remoteMediaIndex.clear();
 
                         // 2. Detach tracks, then dispose streams. Tracks themselves get disposed in step 3.
                         for (Map.Entry<String, MediaStream> entry : localStreams.entrySet()) {
@@ -247,6 +281,9 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
             Log.e(TAG, "invalidate() error", e);
         }
 
+        // Idle renderers hold on to EGL contexts (and views of the old context).
+        UiThreadUtil.runOnUiThread(() -> VideoRendererPool.getInstance().clear());
+
         super.invalidate();
     }
 
@@ -315,11 +352,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     }
 
     void sendEvent(String eventName, @Nullable ReadableMap params) {
-        if (getReactApplicationContext().hasActiveReactInstance()) {
-            getReactApplicationContext()
-                    .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                    .emit(eventName, params);
-        }
+        eventBus.post(eventName, params);
     }
 
     private PeerConnection.IceServer createIceServer(String url) {
@@ -586,26 +619,29 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         PeerConnection.RTCConfiguration rtcConfiguration = parseRTCConfiguration(configuration);
 
         try {
-            return (boolean) ThreadUtils
-                    .submitToExecutor(() -> {
-                        PeerConnectionFactoryProvider spcf = factoryRegistry.getOrCreateDefault();
-                        PeerConnectionObserver observer = new PeerConnectionObserver(this, id);
-                        PeerConnection peerConnection = spcf.factory.createPeerConnection(rtcConfiguration, observer);
-                        if (peerConnection == null) {
-                            return false;
-                        }
-                        observer.setPeerConnection(peerConnection);
-                        mPeerConnectionObservers.put(id, observer);
-                        factoryRegistry.bindPeerConnection(id, spcf);
-                        return true;
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("peerConnectionInit",
+                    ThreadUtils.submitToExecutor(id, "peerConnectionInit",
+                            () -> initPeerConnection(rtcConfiguration, id)));
         } catch (ExecutionException | InterruptedException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }
     }
 
+    // Must be called in the executor.
+    private boolean initPeerConnection(PeerConnection.RTCConfiguration rtcConfiguration, int id) {
+        PeerConnectionFactoryProvider spcf = factoryRegistry.getOrCreateDefault();
+        PeerConnectionObserver observer = new PeerConnectionObserver(this, id);
+        PeerConnection peerConnection = spcf.factory.createPeerConnection(rtcConfiguration, observer);
+        if (peerConnection == null) {
+            return false;
+        }
+        observer.setPeerConnection(peerConnection);
+        mPeerConnectionObservers.put(id, observer);
+        factoryRegistry.bindPeerConnection(id, spcf);
+        return true;
+    }
+
     // Must be called in the executor.
     public MediaStream getStreamForReactTag(String streamReactTag) {
         MediaStream stream = localStreams.get(streamReactTag);
@@ -614,15 +650,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
             return stream;
         }
 
-        for (int i = 0, size = mPeerConnectionObservers.size(); i < size; i++) {
-            PeerConnectionObserver pco = mPeerConnectionObservers.valueAt(i);
-            stream = pco.remoteStreams.get(streamReactTag);
-            if (stream != null) {
-                return stream;
-            }
-        }
-
-        return null;
+        return remoteMediaIndex.getStream(streamReactTag);
     }
 
     public MediaStreamTrack getTrack(int pcId, String trackId) {
@@ -639,6 +667,10 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         return pco.remoteTracks.get(trackId);
     }
 
+    RemoteMediaIndex getRemoteMediaIndex() {
+        return remoteMediaIndex;
+    }
+
     MediaStreamTrack getLocalTrack(String trackId) {
         return getUserMediaImpl.getTrack(trackId);
     }
@@ -652,20 +684,10 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         if (local != null) {
             return local;
         }
-        for (int i = 0, size = mPeerConnectionObservers.size(); i < size; i++) {
-            PeerConnectionObserver pco = mPeerConnectionObservers.valueAt(i);
-            PeerConnection pc = pco.getPeerConnection();
-            if (pc == null) {
-                continue;
-            }
-            for (RtpReceiver receiver : pc.getReceivers()) {
-                MediaStreamTrack track = receiver.track();
-                if (track != null && trackId.equals(track.id())) {
-                    return track;
-                }
-            }
-        }
-        return null;
+        // Receiver tracks are indexed as soon as their transceiver is created,
+        // not only once onAddTrack signals them.
+        RemoteMediaIndex.Entry<MediaStreamTrack> remote = remoteMediaIndex.getTrack(trackId);
+        return remote != null ? remote.value : null;
     }
 
     public VideoTrack createVideoTrack(AbstractVideoCaptureController videoCaptureController) {
@@ -712,141 +734,172 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap peerConnectionAddTransceiver(int id, ReadableMap options) {
         try {
-            return (WritableMap) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
-                        if (pco == null) {
-                            Log.d(TAG, "peerConnectionAddTransceiver() peerConnection is null");
-                            return null;
-                        }
+            return ThreadUtils.awaitBlocking("peerConnectionAddTransceiver",
+                    ThreadUtils.submitToExecutor(id, "peerConnectionAddTransceiver",
+                            () -> addTransceiver(id, options)));
+        } catch (InterruptedException | ExecutionException e) {
+            Log.d(TAG, "peerConnectionAddTransceiver() " + e.getMessage());
+            return null;
+        }
+    }
 
-                        RtpTransceiver transceiver = null;
-                        if (options.hasKey("type")) {
-                            String kind = options.getString("type");
-                            transceiver = pco.addTransceiver(SerializeUtils.parseMediaType(kind),
-                                    SerializeUtils.parseTransceiverOptions(options.getMap("init")));
-                        } else if (options.hasKey("trackId")) {
-                            String trackId = options.getString("trackId");
-                            MediaStreamTrack track = getLocalTrack(trackId);
-                            transceiver = pco.addTransceiver(
-                                    track, SerializeUtils.parseTransceiverOptions(options.getMap("init")));
-
-                            // Add mute detection for local video tracks (dimension detection is handled at track
-                            // creation)
-                            if (track instanceof VideoTrack) {
-                                pco.videoTrackAdapters.addAdapter((VideoTrack) track);
-                            }
+    // Must be called in the executor.
+    @Nullable
+    private WritableMap addTransceiver(int id, ReadableMap options) {
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+        if (pco == null) {
+            Log.d(TAG, "peerConnectionAddTransceiver() peerConnection is null");
+            return null;
+        }
 
-                        } else {
-                            // This should technically never happen as the JS side checks for that.
-                            Log.d(TAG, "peerConnectionAddTransceiver() no type nor trackId provided in options");
-                            return null;
-                        }
+        RtpTransceiver transceiver = null;
+        if (options.hasKey("type")) {
+            String kind = options.getString("type");
+            transceiver = pco.addTransceiver(SerializeUtils.parseMediaType(kind),
+                    SerializeUtils.parseTransceiverOptions(options.getMap("init")));
+        } else if (options.hasKey("trackId")) {
+            String trackId = options.getString("trackId");
+            MediaStreamTrack track = getLocalTrack(trackId);
+            transceiver = pco.addTransceiver(
+                    track, SerializeUtils.parseTransceiverOptions(options.getMap("init")));
+
+            // Add mute detection for local video tracks (dimension detection is handled at track creation)
+            if (track instanceof VideoTrack) {
+                pco.videoTrackAdapters.addAdapter((VideoTrack) track);
+            }
 
-                        if (transceiver == null) {
-                            Log.d(TAG, "peerConnectionAddTransceiver() Error adding transceiver");
-                            return null;
-                        }
-                        WritableMap params = Arguments.createMap();
-                        // We need to get a unique order at which the transceiver was created
-                        // to reorder the cached array of transceivers on the JS layer.
-                        params.putInt("transceiverOrder", pco.getNextTransceiverId());
-                        params.putMap("transceiver", SerializeUtils.serializeTransceiver(id, transceiver));
-                        return params;
-                    })
-                    .get();
-        } catch (InterruptedException | ExecutionException e) {
-            Log.d(TAG, "peerConnectionAddTransceiver() " + e.getMessage());
+        } else {
+            // This should technically never happen as the JS side checks for that.
+            Log.d(TAG, "peerConnectionAddTransceiver() no type nor trackId provided in options");
+            return null;
+        }
+
+        if (transceiver == null) {
+            Log.d(TAG, "peerConnectionAddTransceiver() Error adding transceiver");
             return null;
         }
+        WritableMap params = Arguments.createMap();
+        // We need to get a unique order at which the transceiver was created
+        // to reorder the cached array of transceivers on the JS layer.
+        params.putInt("transceiverOrder", pco.getNextTransceiverId());
+        params.putMap("transceiver", SerializeUtils.serializeTransceiver(id, transceiver));
+        return params;
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap peerConnectionAddTrack(int id, String trackId, ReadableMap options) {
         try {
-            return (WritableMap) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
-                        if (pco == null) {
-                            Log.d(TAG, "peerConnectionAddTrack() peerConnection is null");
-                            return null;
-                        }
-
-                        MediaStreamTrack track = getLocalTrack(trackId);
-                        if (track == null) {
-                            Log.w(TAG, "peerConnectionAddTrack() couldn't find track " + trackId);
-                            return null;
-                        }
+            return ThreadUtils.awaitBlocking("peerConnectionAddTrack",
+                    ThreadUtils.submitToExecutor(id, "peerConnectionAddTrack", () -> addTrack(id, trackId, options)));
+        } catch (InterruptedException | ExecutionException e) {
+            Log.d(TAG, "peerConnectionAddTrack() " + e.getMessage());
+            return null;
+        }
+    }
 
-                        List<String> streamIds = new ArrayList<>();
-                        if (options.hasKey("streamIds")) {
-                            ReadableArray rawStreamIds = options.getArray("streamIds");
-                            if (rawStreamIds != null) {
-                                for (int i = 0; i < rawStreamIds.size(); i++) {
-                                    streamIds.add(rawStreamIds.getString(i));
-                                }
-                            }
-                        }
-                        RtpSender sender = pco.getPeerConnection().addTrack(track, streamIds);
+    // Must be called in the executor.
+    @Nullable
+    private WritableMap addTrack(int id, String trackId, ReadableMap options) {
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+        if (pco == null) {
+            Log.d(TAG, "peerConnectionAddTrack() peerConnection is null");
+            return null;
+        }
 
-                        // Add mute detection for local video tracks (dimension detection is handled at track creation)
-                        if (track instanceof VideoTrack) {
-                            pco.videoTrackAdapters.addAdapter((VideoTrack) track);
-                        }
+        MediaStreamTrack track = getLocalTrack(trackId);
+        if (track == null) {
+            Log.w(TAG, "peerConnectionAddTrack() couldn't find track " + trackId);
+            return null;
+        }
 
-                        // Need to get the corresponding transceiver as well
-                        RtpTransceiver transceiver = pco.getTransceiver(sender.id());
+        List<String> streamIds = new ArrayList<>();
+        if (options.hasKey("streamIds")) {
+            ReadableArray rawStreamIds = options.getArray("streamIds");
+            if (rawStreamIds != null) {
+                for (int i = 0; i < rawStreamIds.size(); i++) {
+                    streamIds.add(rawStreamIds.getString(i));
+                }
+            }
+        }
+        RtpSender sender = pco.getPeerConnection().addTrack(track, streamIds);
 
-                        // We need the transceiver creation order to reorder the transceivers array
-                        // in the JS layer.
-                        WritableMap params = Arguments.createMap();
-                        params.putInt("transceiverOrder", pco.getNextTransceiverId());
-                        params.putMap("transceiver", SerializeUtils.serializeTransceiver(id, transceiver));
-                        params.putMap("sender", SerializeUtils.serializeSender(id, sender));
-                        return params;
-                    })
-                    .get();
-        } catch (InterruptedException | ExecutionException e) {
-            Log.d(TAG, "peerConnectionAddTrack() " + e.getMessage());
-            return null;
+        // Add mute detection for local video tracks (dimension detection is handled at track creation)
+        if (track instanceof VideoTrack) {
+            pco.videoTrackAdapters.addAdapter((VideoTrack) track);
         }
+
+        // Need to get the corresponding transceiver as well
+        RtpTransceiver transceiver = pco.getTransceiver(sender.id());
+        pco.indexReceiverTrack(transceiver);
+
+        // We need the transceiver creation order to reorder the transceivers array
+        // in the JS layer.
+        WritableMap params = Arguments.createMap();
+        params.putInt("transceiverOrder", pco.getNextTransceiverId());
+        params.putMap("transceiver", SerializeUtils.serializeTransceiver(id, transceiver));
+        params.putMap("sender", SerializeUtils.serializeSender(id, sender));
+        return params;
     }
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public boolean peerConnectionRemoveTrack(int id, String senderId) {
         try {
-            return (boolean) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
-                        if (pco == null) {
-                            Log.d(TAG, "peerConnectionRemoveTrack() peerConnection is null");
-                            return false;
-                        }
-                        RtpSender sender = pco.getSender(senderId);
-                        if (sender == null) {
-                            Log.w(TAG, "peerConnectionRemoveTrack() sender is null");
-                            return false;
-                        }
-
-                        // Remove video track adapters for local tracks
-                        MediaStreamTrack track = sender.track();
-                        if (track instanceof VideoTrack) {
-                            pco.videoTrackAdapters.removeAdapter((VideoTrack) track);
-                            // Note: dimension detection for local tracks is cleaned up when track is disposed
-                        }
-
-                        return pco.getPeerConnection().removeTrack(sender);
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("peerConnectionRemoveTrack",
+                    ThreadUtils.submitToExecutor(id, "peerConnectionRemoveTrack", () -> removeTrack(id, senderId)));
         } catch (InterruptedException | ExecutionException e) {
             Log.d(TAG, "peerConnectionRemoveTrack() " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Non-blocking {@link #peerConnectionRemoveTrack}. JS defers releasing the
+     * sender's track until this settles, since track release runs on the
+     * shared lane rather than this peer connection's.
+     */
+    @ReactMethod
+    public void peerConnectionRemoveTrackAsync(int id, String senderId, Promise promise) {
+        ThreadUtils.runOnExecutor(id, "peerConnectionRemoveTrack", () -> {
+            try {
+                promise.resolve(removeTrack(id, senderId));
+            } catch (Exception e) {
+                promise.reject(e);
+            }
+        });
+    }
+
+    // Must be called in the executor.
+    private boolean removeTrack(int id, String senderId) {
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+        if (pco == null) {
+            Log.d(TAG, "peerConnectionRemoveTrack() peerConnection is null");
+            return false;
+        }
+        RtpSender sender = pco.getSender(senderId);
+        if (sender == null) {
+            Log.w(TAG, "peerConnectionRemoveTrack() sender is null");
+            return false;
+        }
+
+        // Remove video track adapters for local tracks
+        MediaStreamTrack track = sender.track();
+        if (track instanceof VideoTrack) {
+            try {
+                pco.videoTrackAdapters.removeAdapter((VideoTrack) track);
+            } catch (IllegalStateException e) {
+                // The track was disposed already (its sinks went with it);
+                // the sender still has to let go of it.
+                Log.w(TAG, "peerConnectionRemoveTrack() track already disposed", e);
+            }
+            // Note: dimension detection for local tracks is cleaned up when track is disposed
+        }
+
+        return pco.getPeerConnection().removeTrack(sender);
+    }
+
     @ReactMethod
     public void senderSetParameters(int id, String senderId, ReadableMap options, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "senderSetParameters", () -> {
             try {
                 PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
                 if (pco == null) {
@@ -875,7 +928,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void transceiverStop(int id, String senderId, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "transceiverStop", () -> {
             try {
                 PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
                 if (pco == null) {
@@ -901,7 +954,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void senderReplaceTrack(int id, String senderId, String trackId, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "senderReplaceTrack", () -> {
             try {
                 PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
                 if (pco == null) {
@@ -929,7 +982,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void transceiverSetDirection(int id, String senderId, String direction, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "transceiverSetDirection", () -> {
             WritableMap identifier = Arguments.createMap();
             WritableMap params = Arguments.createMap();
             identifier.putInt("peerConnectionId", id);
@@ -960,7 +1013,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod(isBlockingSynchronousMethod = true)
     public boolean transceiverSetCodecPreferences(int id, String senderId, ReadableArray codecPreferences) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "transceiverSetCodecPreferences", () -> {
             WritableMap identifier = Arguments.createMap();
             WritableMap params = Arguments.createMap();
             identifier.putInt("peerConnectionId", id);
@@ -1024,23 +1077,25 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void getDisplayMedia(ReadableMap constraints, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> getUserMediaImpl.getDisplayMedia(constraints, promise));
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "getDisplayMedia",
+                () -> getUserMediaImpl.getDisplayMedia(constraints, promise));
     }
 
     @ReactMethod
     public void getUserMedia(ReadableMap constraints, Callback successCallback, Callback errorCallback) {
-        ThreadUtils.runOnExecutor(() -> getUserMediaImpl.getUserMedia(
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "getUserMedia", () -> getUserMediaImpl.getUserMedia(
                 constraints, successCallback, errorCallback));
     }
 
     @ReactMethod
     public void enumerateDevices(Callback callback) {
-        ThreadUtils.runOnExecutor(() -> callback.invoke(getUserMediaImpl.enumerateDevices()));
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "enumerateDevices",
+                () -> callback.invoke(getUserMediaImpl.enumerateDevices()));
     }
 
     @ReactMethod
     public void mediaStreamCreate(String id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamCreate", () -> {
             PeerConnectionFactoryProvider spcf = factoryRegistry.getOrCreateDefault();
             MediaStream mediaStream = spcf.factory.createLocalMediaStream(id);
             localStreams.put(id, mediaStream);
@@ -1049,7 +1104,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamAddTrack(String streamId, int pcId, String trackId) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamAddTrack", () -> {
             MediaStream stream = localStreams.get(streamId);
             if (stream == null) {
                 Log.d(TAG, "mediaStreamAddTrack() could not find stream " + streamId);
@@ -1073,7 +1128,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamRemoveTrack(String streamId, int pcId, String trackId) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamRemoveTrack", () -> {
             MediaStream stream = localStreams.get(streamId);
             if (stream == null) {
                 Log.d(TAG, "mediaStreamRemoveTrack() could not find stream " + streamId);
@@ -1097,7 +1152,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamRelease(String id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamRelease", () -> {
             MediaStream stream = localStreams.get(id);
             if (stream == null) {
                 Log.d(TAG, "mediaStreamRelease() stream is null");
@@ -1110,7 +1165,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamTrackRelease(String id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamTrackRelease", () -> {
             MediaStreamTrack track = getLocalTrack(id);
             if (track == null) {
                 Log.d(TAG, "mediaStreamTrackRelease() track is null");
@@ -1123,7 +1178,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamTrackSetEnabled(int pcId, String id, boolean enabled) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "mediaStreamTrackSetEnabled", () -> {
             MediaStreamTrack track = getTrack(pcId, id);
             if (track == null) {
                 Log.d(TAG, "mediaStreamTrackSetEnabled() could not find track " + id);
@@ -1140,7 +1195,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamTrackApplyConstraints(String id, ReadableMap constraints, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamTrackApplyConstraints", () -> {
             MediaStreamTrack track = getLocalTrack(id);
             if (track != null) {
                 getUserMediaImpl.applyConstraints(id, constraints, promise);
@@ -1152,7 +1207,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void mediaStreamTrackSetVolume(int pcId, String id, double volume) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "mediaStreamTrackSetVolume", () -> {
             MediaStreamTrack track = getTrack(pcId, id);
             if (track == null) {
                 Log.d(TAG, "mediaStreamTrackSetVolume() could not find track " + id);
@@ -1171,59 +1226,36 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public String mediaStreamTrackClone(String id) {
         try {
-            return (String) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        MediaStreamTrack track = getLocalTrack(id);
-                        if (track == null) {
-                            Log.d(TAG, "mediaStreamTrackClone() could not find track " + id);
-                            return null;
-                        }
-                        MediaStreamTrack clonedTrack = getUserMediaImpl.cloneTrack(id);
-                        return clonedTrack.id();
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("mediaStreamTrackClone",
+                    ThreadUtils.submitToExecutor(ThreadUtils.SHARED_LANE, "mediaStreamTrackClone",
+                            () -> cloneTrack(id)));
         } catch (ExecutionException | InterruptedException e) {
             Log.d(TAG, "mediaStreamTrackClone() " + e.getMessage());
             return null;
         }
     }
 
-    /**
-     * This serializes the transceivers current direction and mid and returns them
-     * for update when an sdp negotiation/renegotiation happens
-     */
-    private ReadableArray getTransceiversInfo(PeerConnection peerConnection) {
-        WritableArray transceiverUpdates = Arguments.createArray();
-
-        for (RtpTransceiver transceiver : peerConnection.getTransceivers()) {
-            WritableMap transceiverUpdate = Arguments.createMap();
-
-            RtpTransceiver.RtpTransceiverDirection direction = transceiver.getCurrentDirection();
-            if (direction != null) {
-                String directionSerialized = SerializeUtils.serializeDirection(direction);
-                transceiverUpdate.putString("currentDirection", directionSerialized);
-            }
-
-            transceiverUpdate.putString("transceiverId", transceiver.getSender().id());
-            transceiverUpdate.putString("mid", transceiver.getMid());
-            transceiverUpdate.putBoolean("isStopped", transceiver.isStopped());
-            transceiverUpdate.putMap("senderRtpParameters",
-                    SerializeUtils.serializeRtpParameters(transceiver.getSender().getParameters()));
-            transceiverUpdate.putMap("receiverRtpParameters",
-                    SerializeUtils.serializeRtpParameters(transceiver.getReceiver().getParameters()));
-            transceiverUpdates.pushMap(transceiverUpdate);
+    // Must be called in the executor.
+    @Nullable
+    private String cloneTrack(String id) {
+        MediaStreamTrack track = getLocalTrack(id);
+        if (track == null) {
+            Log.d(TAG, "mediaStreamTrackClone() could not find track " + id);
+            return null;
         }
-        return transceiverUpdates;
+        MediaStreamTrack clonedTrack = getUserMediaImpl.cloneTrack(id);
+        return clonedTrack.id();
     }
 
     @ReactMethod
     public void mediaStreamTrackSetVideoEffects(String id, ReadableArray names) {
-        ThreadUtils.runOnExecutor(() -> { getUserMediaImpl.setVideoEffects(id, names); });
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "mediaStreamTrackSetVideoEffects",
+                () -> { getUserMediaImpl.setVideoEffects(id, names); });
     }
 
     @ReactMethod
     public void peerConnectionSetConfiguration(ReadableMap configuration, int id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "peerConnectionSetConfiguration", () -> {
             PeerConnection peerConnection = getPeerConnection(id);
             if (peerConnection == null) {
                 Log.d(TAG, "peerConnectionSetConfiguration() peerConnection is null");
@@ -1235,7 +1267,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionCreateOffer(int id, ReadableMap options, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "peerConnectionCreateOffer", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
             PeerConnection peerConnection = pco == null ? null : pco.getPeerConnection();
 
@@ -1245,27 +1277,25 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                 return;
             }
 
-            List<String> receiversIds = new ArrayList<>();
-            for (RtpTransceiver transceiver : peerConnection.getTransceivers()) {
-                receiversIds.add(transceiver.getReceiver().id());
-            }
+            Set<String> receiversIds = pco.getReceiverIds();
 
             final SdpObserver observer = new SdpObserver() {
                 @Override
                 public void onCreateFailure(String s) {
-                    ThreadUtils.runOnExecutor(() -> { promise.reject("E_OPERATION_ERROR", s); });
+                    ThreadUtils.runOnExecutor(id, "peerConnectionCreateOffer.callback",
+                            () -> { promise.reject("E_OPERATION_ERROR", s); });
                 }
 
                 @Override
                 public void onCreateSuccess(SessionDescription sdp) {
-                    ThreadUtils.runOnExecutor(() -> {
+                    ThreadUtils.runOnExecutor(id, "peerConnectionCreateOffer.callback", () -> {
                         WritableMap params = Arguments.createMap();
                         WritableMap sdpInfo = Arguments.createMap();
 
                         sdpInfo.putString("sdp", sdp.description);
                         sdpInfo.putString("type", sdp.type.canonicalForm());
 
-                        params.putArray("transceiversInfo", getTransceiversInfo(peerConnection));
+                        params.putArray("transceiversInfo", pco.getTransceiverUpdates());
                         params.putMap("sdpInfo", sdpInfo);
 
                         WritableArray newTransceivers = Arguments.createArray();
@@ -1298,8 +1328,9 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionCreateAnswer(int id, ReadableMap options, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
-            PeerConnection peerConnection = getPeerConnection(id);
+        ThreadUtils.runOnExecutor(id, "peerConnectionCreateAnswer", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+            PeerConnection peerConnection = pco == null ? null : pco.getPeerConnection();
 
             if (peerConnection == null) {
                 Log.d(TAG, "peerConnectionCreateAnswer() peerConnection is null");
@@ -1310,19 +1341,20 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
             final SdpObserver observer = new SdpObserver() {
                 @Override
                 public void onCreateFailure(String s) {
-                    ThreadUtils.runOnExecutor(() -> { promise.reject("E_OPERATION_ERROR", s); });
+                    ThreadUtils.runOnExecutor(id, "peerConnectionCreateAnswer.callback",
+                            () -> { promise.reject("E_OPERATION_ERROR", s); });
                 }
 
                 @Override
                 public void onCreateSuccess(SessionDescription sdp) {
-                    ThreadUtils.runOnExecutor(() -> {
+                    ThreadUtils.runOnExecutor(id, "peerConnectionCreateAnswer.callback", () -> {
                         WritableMap params = Arguments.createMap();
                         WritableMap sdpInfo = Arguments.createMap();
 
                         sdpInfo.putString("sdp", sdp.description);
                         sdpInfo.putString("type", sdp.type.canonicalForm());
 
-                        params.putArray("transceiversInfo", getTransceiversInfo(peerConnection));
+                        params.putArray("transceiversInfo", pco.getTransceiverUpdates());
                         params.putMap("sdpInfo", sdpInfo);
 
                         promise.resolve(params);
@@ -1342,8 +1374,9 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionSetLocalDescription(int pcId, ReadableMap desc, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
-            PeerConnection peerConnection = getPeerConnection(pcId);
+        ThreadUtils.runOnExecutor(pcId, "peerConnectionSetLocalDescription", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(pcId);
+            PeerConnection peerConnection = pco == null ? null : pco.getPeerConnection();
             if (peerConnection == null) {
                 Log.d(TAG, "peerConnectionSetLocalDescription() peerConnection is null");
                 promise.reject(new Exception("PeerConnection not found"));
@@ -1356,7 +1389,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
                 @Override
                 public void onSetSuccess() {
-                    ThreadUtils.runOnExecutor(() -> {
+                    ThreadUtils.runOnExecutor(pcId, "peerConnectionSetLocalDescription.callback", () -> {
                         WritableMap newSdpMap = Arguments.createMap();
                         WritableMap params = Arguments.createMap();
 
@@ -1368,7 +1401,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                         }
 
                         params.putMap("sdpInfo", newSdpMap);
-                        params.putArray("transceiversInfo", getTransceiversInfo(peerConnection));
+                        params.putArray("transceiversInfo", pco.getTransceiverUpdates());
 
                         promise.resolve(params);
                     });
@@ -1379,7 +1412,8 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
                 @Override
                 public void onSetFailure(String s) {
-                    ThreadUtils.runOnExecutor(() -> { promise.reject("E_OPERATION_ERROR", s); });
+                    ThreadUtils.runOnExecutor(pcId, "peerConnectionSetLocalDescription.callback",
+                            () -> { promise.reject("E_OPERATION_ERROR", s); });
                 }
             };
 
@@ -1397,7 +1431,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionSetRemoteDescription(int id, ReadableMap desc, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "peerConnectionSetRemoteDescription", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
             PeerConnection peerConnection = pco == null ? null : pco.getPeerConnection();
 
@@ -1410,10 +1444,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
             SessionDescription sdp = new SessionDescription(
                     SessionDescription.Type.fromCanonicalForm(desc.getString("type")), desc.getString("sdp"));
 
-            List<String> receiversIds = new ArrayList<>();
-            for (RtpTransceiver transceiver : peerConnection.getTransceivers()) {
-                receiversIds.add(transceiver.getReceiver().id());
-            }
+            Set<String> receiversIds = pco.getReceiverIds();
 
             final SdpObserver observer = new SdpObserver() {
                 @Override
@@ -1421,7 +1452,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
                 @Override
                 public void onSetSuccess() {
-                    ThreadUtils.runOnExecutor(() -> {
+                    ThreadUtils.runOnExecutor(id, "peerConnectionSetRemoteDescription.callback", () -> {
                         WritableMap newSdpMap = Arguments.createMap();
                         WritableMap params = Arguments.createMap();
 
@@ -1432,7 +1463,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                             newSdpMap.putString("sdp", newSdp.description);
                         }
 
-                        params.putArray("transceiversInfo", getTransceiversInfo(peerConnection));
+                        params.putArray("transceiversInfo", pco.getTransceiverUpdates());
                         params.putMap("sdpInfo", newSdpMap);
 
                         WritableArray newTransceivers = Arguments.createArray();
@@ -1457,7 +1488,8 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
                 @Override
                 public void onSetFailure(String s) {
-                    ThreadUtils.runOnExecutor(() -> { promise.reject("E_OPERATION_ERROR", s); });
+                    ThreadUtils.runOnExecutor(id, "peerConnectionSetRemoteDescription.callback",
+                            () -> { promise.reject("E_OPERATION_ERROR", s); });
                 }
             };
 
@@ -1468,56 +1500,89 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap receiverGetCapabilities(String kind) {
         try {
-            return (WritableMap) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        MediaStreamTrack.MediaType mediaType;
-                        if (kind.equals("audio")) {
-                            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
-                        } else if (kind.equals("video")) {
-                            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
-                        } else {
-                            return Arguments.createMap();
-                        }
-
-                        RtpCapabilities capabilities =
-                                factoryRegistry.getOrCreateDefault().factory.getRtpReceiverCapabilities(mediaType);
-                        return SerializeUtils.serializeRtpCapabilities(capabilities);
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("receiverGetCapabilities",
+                    ThreadUtils.submitToExecutor(ThreadUtils.SHARED_LANE, "receiverGetCapabilities",
+                            () -> getReceiverCapabilities(kind)));
         } catch (ExecutionException | InterruptedException e) {
             Log.d(TAG, "receiverGetCapabilities() " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Resolves with the sender and receiver capabilities for audio and video
+     * at once, <tt>{sender: {audio, video}, receiver: {audio, video}}</tt>, so
+     * JS can answer the synchronous getCapabilities() calls from a cache.
+     */
+    @ReactMethod
+    public void rtpGetCapabilities(Promise promise) {
+        ThreadUtils.runOnExecutor(ThreadUtils.SHARED_LANE, "rtpGetCapabilities", () -> {
+            try {
+                WritableMap sender = Arguments.createMap();
+                sender.putMap("audio", getSenderCapabilities("audio"));
+                sender.putMap("video", getSenderCapabilities("video"));
+                WritableMap receiver = Arguments.createMap();
+                receiver.putMap("audio", getReceiverCapabilities("audio"));
+                receiver.putMap("video", getReceiverCapabilities("video"));
+                WritableMap result = Arguments.createMap();
+                result.putMap("sender", sender);
+                result.putMap("receiver", receiver);
+                promise.resolve(result);
+            } catch (Exception e) {
+                promise.reject(e);
+            }
+        });
+    }
+
+    // Must be called in the executor.
+    @Nullable
+    private WritableMap getReceiverCapabilities(String kind) {
+        MediaStreamTrack.MediaType mediaType;
+        if (kind.equals("audio")) {
+            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
+        } else if (kind.equals("video")) {
+            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
+        } else {
+            return Arguments.createMap();
+        }
+
+        RtpCapabilities capabilities =
+                factoryRegistry.getOrCreateDefault().factory.getRtpReceiverCapabilities(mediaType);
+        return SerializeUtils.serializeRtpCapabilities(capabilities);
+    }
+
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap senderGetCapabilities(String kind) {
         try {
-            return (WritableMap) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        MediaStreamTrack.MediaType mediaType;
-                        if (kind.equals("audio")) {
-                            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
-                        } else if (kind.equals("video")) {
-                            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
-                        } else {
-                            return Arguments.createMap();
-                        }
-
-                        RtpCapabilities capabilities =
-                                factoryRegistry.getOrCreateDefault().factory.getRtpSenderCapabilities(mediaType);
-                        return SerializeUtils.serializeRtpCapabilities(capabilities);
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("senderGetCapabilities",
+                    ThreadUtils.submitToExecutor(ThreadUtils.SHARED_LANE, "senderGetCapabilities",
+                            () -> getSenderCapabilities(kind)));
         } catch (ExecutionException | InterruptedException e) {
             Log.d(TAG, "senderGetCapabilities() " + e.getMessage());
             return null;
         }
     }
 
+    // Must be called in the executor.
+    @Nullable
+    private WritableMap getSenderCapabilities(String kind) {
+        MediaStreamTrack.MediaType mediaType;
+        if (kind.equals("audio")) {
+            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
+        } else if (kind.equals("video")) {
+            mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
+        } else {
+            return Arguments.createMap();
+        }
+
+        RtpCapabilities capabilities =
+                factoryRegistry.getOrCreateDefault().factory.getRtpSenderCapabilities(mediaType);
+        return SerializeUtils.serializeRtpCapabilities(capabilities);
+    }
+
     @ReactMethod
     public void receiverGetStats(int pcId, String receiverId, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "receiverGetStats", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(pcId);
             if (pco == null || pco.getPeerConnection() == null) {
                 Log.d(TAG, "receiverGetStats() peerConnection is null");
@@ -1530,7 +1595,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void senderGetStats(int pcId, String senderId, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "senderGetStats", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(pcId);
             if (pco == null || pco.getPeerConnection() == null) {
                 Log.d(TAG, "senderGetStats() peerConnection is null");
@@ -1543,7 +1608,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionAddICECandidate(int pcId, ReadableMap candidateMap, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "peerConnectionAddICECandidate", () -> {
             PeerConnection peerConnection = getPeerConnection(pcId);
             if (peerConnection == null) {
                 Log.d(TAG, "peerConnectionAddICECandidate() peerConnection is null");
@@ -1551,23 +1616,16 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                 return;
             }
 
-            if (!candidateMap.hasKey("sdpMid") && !candidateMap.hasKey("sdpMLineIndex")) {
+            IceCandidate candidate = parseIceCandidate(candidateMap);
+            if (candidate == null) {
                 promise.reject("E_TYPE_ERROR", "Invalid argument");
                 return;
             }
 
-            IceCandidate candidate = new IceCandidate(candidateMap.hasKey("sdpMid") && !candidateMap.isNull("sdpMid")
-                            ? candidateMap.getString("sdpMid")
-                            : "",
-                    candidateMap.hasKey("sdpMLineIndex") && !candidateMap.isNull("sdpMLineIndex")
-                            ? candidateMap.getInt("sdpMLineIndex")
-                            : 0,
-                    candidateMap.getString("candidate"));
-
             peerConnection.addIceCandidate(candidate, new AddIceObserver() {
                 @Override
                 public void onAddSuccess() {
-                    ThreadUtils.runOnExecutor(() -> {
+                    ThreadUtils.runOnExecutor(pcId, "peerConnectionAddICECandidate.callback", () -> {
                         WritableMap newSdpMap = Arguments.createMap();
                         SessionDescription newSdp = peerConnection.getRemoteDescription();
                         newSdpMap.putString("type", newSdp.type.canonicalForm());
@@ -1578,15 +1636,108 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
                 @Override
                 public void onAddFailure(String s) {
-                    ThreadUtils.runOnExecutor(() -> { promise.reject("E_OPERATION_ERROR", s); });
+                    ThreadUtils.runOnExecutor(pcId, "peerConnectionAddICECandidate.callback",
+                            () -> { promise.reject("E_OPERATION_ERROR", s); });
                 }
             });
         });
     }
 
+    /**
+     * Adds several remote candidates in one executor task, in order. Resolves
+     * once all of them have been applied with <tt>{results, sdp}</tt>, where
+     * <tt>results</tt> holds, for each candidate, either <tt>null</tt> on
+     * success or the error message.
+     */
+    @ReactMethod
+    public void peerConnectionAddICECandidates(int pcId, ReadableArray candidates, Promise promise) {
+        ThreadUtils.runOnExecutor(pcId, "peerConnectionAddICECandidates", () -> {
+            PeerConnection peerConnection = getPeerConnection(pcId);
+            if (peerConnection == null) {
+                Log.d(TAG, "peerConnectionAddICECandidates() peerConnection is null");
+                promise.reject(new Exception("PeerConnection not found"));
+                return;
+            }
+
+            int count = candidates.size();
+            String[] errors = new String[count];
+            AtomicInteger remaining = new AtomicInteger(count + 1);
+
+            Runnable onComplete = () -> {
+                if (remaining.decrementAndGet() != 0) {
+                    return;
+                }
+                ThreadUtils.runOnExecutor(pcId, "peerConnectionAddICECandidates.callback", () -> {
+                    WritableArray results = Arguments.createArray();
+                    for (String error : errors) {
+                        if (error == null) {
+                            results.pushNull();
+                        } else {
+                            results.pushString(error);
+                        }
+                    }
+
+                    WritableMap result = Arguments.createMap();
+                    result.putArray("results", results);
+                    SessionDescription newSdp = peerConnection.getRemoteDescription();
+                    if (newSdp != null) {
+                        WritableMap newSdpMap = Arguments.createMap();
+                        newSdpMap.putString("type", newSdp.type.canonicalForm());
+                        newSdpMap.putString("sdp", newSdp.description);
+                        result.putMap("sdp", newSdpMap);
+                    }
+                    promise.resolve(result);
+                });
+            };
+
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                IceCandidate candidate = candidates.getType(i) == ReadableType.Map
+                        ? parseIceCandidate(candidates.getMap(i))
+                        : null;
+                if (candidate == null) {
+                    errors[index] = "Invalid argument";
+                    onComplete.run();
+                    continue;
+                }
+
+                peerConnection.addIceCandidate(candidate, new AddIceObserver() {
+                    @Override
+                    public void onAddSuccess() {
+                        onComplete.run();
+                    }
+
+                    @Override
+                    public void onAddFailure(String s) {
+                        errors[index] = s;
+                        onComplete.run();
+                    }
+                });
+            }
+
+            // Balances the extra count, so an empty array resolves too.
+            onComplete.run();
+        });
+    }
+
+    @Nullable
+    private static IceCandidate parseIceCandidate(ReadableMap candidateMap) {
+        if (!candidateMap.hasKey("sdpMid") && !candidateMap.hasKey("sdpMLineIndex")) {
+            return null;
+        }
+
+        return new IceCandidate(candidateMap.hasKey("sdpMid") && !candidateMap.isNull("sdpMid")
+                        ? candidateMap.getString("sdpMid")
+                        : "",
+                candidateMap.hasKey("sdpMLineIndex") && !candidateMap.isNull("sdpMLineIndex")
+                        ? candidateMap.getInt("sdpMLineIndex")
+                        : 0,
+                candidateMap.getString("candidate"));
+    }
+
     @ReactMethod
     public void peerConnectionGetStats(int peerConnectionId, Promise promise) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(peerConnectionId, "peerConnectionGetStats", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
             if (pco == null || pco.getPeerConnection() == null) {
                 Log.d(TAG, "peerConnectionGetStats() peerConnection is null");
@@ -1597,9 +1748,46 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         });
     }
 
+    @ReactMethod
+    public void peerConnectionSetIceCandidateBatching(int peerConnectionId, int windowMs) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "peerConnectionSetIceCandidateBatching", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "peerConnectionSetIceCandidateBatching() peerConnection is null");
+                return;
+            }
+            pco.setIceCandidateBatching(windowMs);
+        });
+    }
+
+    @ReactMethod
+    public void peerConnectionSetStatsSampling(int peerConnectionId, int intervalMs, ReadableMap options) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "peerConnectionSetStatsSampling", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "peerConnectionSetStatsSampling() peerConnection is null");
+                return;
+            }
+            pco.setStatsSampling(intervalMs, options);
+        });
+    }
+
+    @ReactMethod
+    public void peerConnectionGetFilteredStats(int peerConnectionId, ReadableMap options, Promise promise) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "peerConnectionGetFilteredStats", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "peerConnectionGetFilteredStats() peerConnection is null");
+                promise.resolve(StringUtils.statsToJSON(new RTCStatsReport(0, new HashMap<>())));
+            } else {
+                pco.getFilteredStats(options, promise);
+            }
+        });
+    }
+
     @ReactMethod
     public void peerConnectionClose(int id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "peerConnectionClose", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
             if (pco == null || pco.getPeerConnection() == null) {
                 Log.d(TAG, "peerConnectionClose() peerConnection is null");
@@ -1611,7 +1799,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void peerConnectionDispose(int id) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(id, "peerConnectionDispose", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
             // Null-safe: the PC may already have been disposed (e.g. by
             // disposeCallFactory, which tears down the factory's owned PCs first). Skip the
@@ -1623,12 +1811,13 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
                 mPeerConnectionObservers.remove(id);
             }
             factoryRegistry.unbindPeerConnection(id);
+            ThreadUtils.releaseLane(id);
         });
     }
 
     @ReactMethod
     public void peerConnectionRestartIce(int pcId) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(pcId, "peerConnectionRestartIce", () -> {
             PeerConnection peerConnection = getPeerConnection(pcId);
             if (peerConnection == null) {
                 Log.w(TAG, "peerConnectionRestartIce() peerConnection is null");
@@ -1642,25 +1831,53 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
     @ReactMethod(isBlockingSynchronousMethod = true)
     public WritableMap createDataChannel(int peerConnectionId, String label, ReadableMap config) {
         try {
-            return (WritableMap) ThreadUtils
-                    .submitToExecutor((Callable<Object>) () -> {
-                        PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
-                        if (pco == null || pco.getPeerConnection() == null) {
-                            Log.d(TAG, "createDataChannel() peerConnection is null");
-                            return null;
-                        } else {
-                            return pco.createDataChannel(label, config);
-                        }
-                    })
-                    .get();
+            return ThreadUtils.awaitBlocking("createDataChannel",
+                    ThreadUtils.submitToExecutor(peerConnectionId, "createDataChannel",
+                            () -> newDataChannel(peerConnectionId, label, config)));
         } catch (ExecutionException | InterruptedException e) {
             return null;
         }
     }
 
+    /**
+     * Non-blocking {@link #createDataChannel}: JS picks the channel's react tag
+     * and hands out the channel right away. If it can't be created, a
+     * {@code closed} state change lets JS close it.
+     */
+    @ReactMethod
+    public void createDataChannelAsync(int peerConnectionId, String reactTag, String label, ReadableMap config) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "createDataChannel", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco != null && pco.getPeerConnection() != null
+                    && pco.createDataChannel(reactTag, label, config) != null) {
+                return;
+            }
+
+            Log.w(TAG, "createDataChannelAsync() failed to create DataChannel " + label);
+            WritableMap params = Arguments.createMap();
+            params.putString("reactTag", reactTag);
+            params.putInt("peerConnectionId", peerConnectionId);
+            params.putInt("id", -1);
+            params.putString("state", "closed");
+            sendEvent("dataChannelStateChanged", params);
+        });
+    }
+
+    // Must be called in the executor.
+    @Nullable
+    private WritableMap newDataChannel(int peerConnectionId, String label, ReadableMap config) {
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+        if (pco == null || pco.getPeerConnection() == null) {
+            Log.d(TAG, "createDataChannel() peerConnection is null");
+            return null;
+        } else {
+            return pco.createDataChannel(label, config);
+        }
+    }
+
     @ReactMethod
     public void dataChannelClose(int peerConnectionId, String reactTag) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelClose", () -> {
             // Forward to PeerConnectionObserver which deals with DataChannels
             // because DataChannel is owned by PeerConnection.
             PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
@@ -1675,7 +1892,7 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void dataChannelDispose(int peerConnectionId, String reactTag) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelDispose", () -> {
             PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
             if (pco == null || pco.getPeerConnection() == null) {
                 Log.d(TAG, "dataChannelDispose() peerConnection is null");
@@ -1686,9 +1903,70 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         });
     }
 
+    /**
+     * Configures {@code dataChannelDidChangeBufferedAmount} throttling for a data
+     * channel: when enabled, only low threshold crossings plus at most
+     * {@code maxEventsPerSecond} other updates are emitted.
+     */
+    @ReactMethod
+    public void dataChannelSetBufferedAmountThrottling(int peerConnectionId, String reactTag, ReadableMap options) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelSetBufferedAmountThrottling", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "dataChannelSetBufferedAmountThrottling() peerConnection is null");
+                return;
+            }
+
+            pco.dataChannelSetBufferedAmountThrottling(reactTag, options);
+        });
+    }
+
+    /**
+     * Sends many messages in one bridge call. Messages are sent in order until the
+     * channel's buffered amount reaches {@code highWaterMark}; the promise resolves
+     * with the number of messages sent and the resulting buffered amount.
+     */
+    @ReactMethod
+    public void dataChannelSendBatch(
+            int peerConnectionId, String reactTag, ReadableArray messages, double highWaterMark, Promise promise) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelSendBatch", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "dataChannelSendBatch() peerConnection is null");
+                promise.reject(new Exception("PeerConnection not found"));
+                return;
+            }
+
+            try {
+                promise.resolve(pco.dataChannelSendBatch(reactTag, messages, highWaterMark));
+            } catch (Exception e) {
+                Log.d(TAG, "dataChannelSendBatch(): " + e.getMessage());
+                promise.reject(e);
+            }
+        });
+    }
+
+    /**
+     * Configures inbound message batching for a data channel. With a positive
+     * {@code windowMs}, messages are delivered in {@code dataChannelReceiveMessages}
+     * events instead of one {@code dataChannelReceiveMessage} event each.
+     */
+    @ReactMethod
+    public void dataChannelSetMessageBatching(int peerConnectionId, String reactTag, ReadableMap options) {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelSetMessageBatching", () -> {
+            PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+            if (pco == null || pco.getPeerConnection() == null) {
+                Log.d(TAG, "dataChannelSetMessageBatching() peerConnection is null");
+                return;
+            }
+
+            pco.dataChannelSetMessageBatching(reactTag, options);
+        });
+    }
+
     @ReactMethod
     public void dataChannelSend(int peerConnectionId, String reactTag, String data, String type) {
-        ThreadUtils.runOnExecutor(() -> {
+        ThreadUtils.runOnExecutor(peerConnectionId, "dataChannelSend", () -> {
             // Forward to PeerConnectionObserver which deals with DataChannels
             // because DataChannel is owned by PeerConnection.
             PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
@@ -1701,6 +1979,129 @@ public class WebRTCModule extends ReactContextBaseJavaModule {
         });
     }
 
+    /**
+     * Enables or disables the executor instrumentation. When enabled with a
+     * positive {@code reportIntervalMs}, an {@code executorMetrics} event carrying
+     * the samples collected since the previous report is emitted periodically.
+     */
+    @ReactMethod
+    public void executorMetricsSetEnabled(boolean enabled, int reportIntervalMs) {
+        synchronized (this) {
+            if (executorMetricsTimer != null) {
+                executorMetricsTimer.cancel();
+                executorMetricsTimer = null;
+            }
+
+            ThreadUtils.metrics.reset();
+            ThreadUtils.metrics.setEnabled(enabled);
+
+            if (enabled && reportIntervalMs > 0) {
+                Timer timer = new Timer("ExecutorMetricsTimer");
+                executorMetricsTimer = timer;
+                timer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        synchronized (WebRTCModule.this) {
+                            // A report already running when the timer was
+                            // cancelled (e.g. by invalidate()) must not be sent.
+                            if (executorMetricsTimer != timer) {
+                                return;
+                            }
+                            WritableMap params = ThreadUtils.metrics.toWritableMap();
+                            ThreadUtils.metrics.reset();
+                            sendEvent("executorMetrics", params);
+                        }
+                    }
+                }, reportIntervalMs, reportIntervalMs);
+            }
+        }
+    }
+
+    @ReactMethod
+    public void executorMetricsGet(boolean reset, Promise promise) {
+        WritableMap metrics = ThreadUtils.metrics.toWritableMap();
+        if (reset) {
+            ThreadUtils.metrics.reset();
+        }
+        promise.resolve(metrics);
+    }
+
+    /**
+     * Enables per-processor timing on both audio processing chains. Only
+     * available when the {@link AudioProcessingController} is used.
+     */
+    @ReactMethod
+    public void audioProcessingSetTimingEnabled(boolean enabled) {
+        AudioProcessingController controller = getAudioProcessingController();
+        if (controller == null) {
+            Log.d(TAG, "audioProcessingSetTimingEnabled() no AudioProcessingController");
+            return;
+        }
+        controller.capturePostProcessing.setTimingEnabled(enabled);
+        controller.renderPreProcessing.setTimingEnabled(enabled);
+    }
+
+    @ReactMethod
+    public void audioProcessingGetTimings(boolean reset, Promise promise) {
+        AudioProcessingController controller = getAudioProcessingController();
+        WritableMap result = Arguments.createMap();
+        if (controller != null) {
+            result.putArray("capturePostProcessing", serializeProcessorTimings(controller.capturePostProcessing));
+            result.putArray("renderPreProcessing", serializeProcessorTimings(controller.renderPreProcessing));
+            if (reset) {
+                controller.capturePostProcessing.resetProcessorTimings();
+                controller.renderPreProcessing.resetProcessorTimings();
+            }
+        }
+        promise.resolve(result);
+    }
+
+    @Nullable
+    private static AudioProcessingController getAudioProcessingController() {
+        Object provider = WebRTCModuleOptions.getInstance().audioProcessingFactoryProvider;
+        return provider instanceof AudioProcessingController ? (AudioProcessingController) provider : null;
+    }
+
+    private static WritableArray serializeProcessorTimings(AudioProcessingAdapter adapter) {
+        WritableArray timings = Arguments.createArray();
+        for (AudioProcessingAdapter.ProcessorTiming timing : adapter.getProcessorTimings()) {
+            WritableMap map = Arguments.createMap();
+            map.putString("processor", timing.processor.getClass().getName());
+            map.putDouble("frames", timing.frames);
+            map.putDouble("averageMicros", timing.averageMicros);
+            map.putDouble("maxMicros", timing.maxMicros);
+            timings.pushMap(map);
+        }
+        return timings;
+    }
+
+    /**
+     * Resolves with the statistics of the render threads shared by video
+     * views, see {@link WebRTCModuleOptions#videoViewsPerRenderThread}, and
+     * of the pool of idle renderers under {@code rendererPool}, see
+     * {@link WebRTCModuleOptions#videoRendererPoolSize}.
+     */
+    @ReactMethod
+    public void videoRenderingGetStats(boolean reset, Promise promise) {
+        WritableMap stats = SharedRenderThreadPool.getInstance().getStats(reset);
+        stats.putMap("rendererPool", VideoRendererPool.getInstance().getStats(reset));
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void eventBatchingSetEnabled(boolean enabled) {
+        eventBus.setEnabled(enabled);
+    }
+
+    @ReactMethod
+    public void eventBatchingGetStats(boolean reset, Promise promise) {
+        WritableMap stats = eventBus.getStats();
+        if (reset) {
+            eventBus.resetStats();
+        }
+        promise.resolve(stats);
+    }
+
     @ReactMethod
     public void addListener(String eventName) {
         // Keep: Required for RN built in Event Emitter Calls.
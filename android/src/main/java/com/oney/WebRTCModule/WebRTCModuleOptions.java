@@ -28,6 +28,49 @@ public class WebRTCModuleOptions {
     public AudioProcessingFactoryProvider audioProcessingFactoryProvider;
     public double defaultTrackVolume = 1.0;
 
+    /**
+     * Batch high-volume events (ICE candidates, data channel messages, mute and
+     * dimension changes, ...) sent within the same frame into a single bridge
+     * call. Can also be toggled at runtime from JS.
+     */
+    public boolean enableEventBatching;
+
+    /**
+     * Number of video views (RTCView) sharing one render thread. 0, the
+     * default, gives every view a render thread of its own. With many views on
+     * screen a value of 4 to 8 keeps the render threads from competing with
+     * the decoders; at most {@link #maxFramesPerVsyncPerRenderThread} frames
+     * are then drawn per render thread and vsync. Read when a view is created.
+     */
+    public int videoViewsPerRenderThread;
+    public int maxFramesPerVsyncPerRenderThread = 4;
+
+    /**
+     * Number of initialized video renderers kept around after their RTCViews
+     * unmount, to be reused by views mounted later instead of initializing a
+     * new one (e.g. while a list of call tiles scrolls). 0, the default,
+     * releases a renderer together with its view.
+     */
+    public int videoRendererPoolSize;
+
+    /**
+     * Speech activity detection tuning, read on every captured mic chunk so it
+     * can be changed at runtime. A chunk louder than the threshold (in dBFS)
+     * counts as speech; "started" fires after loud chunks for the confirm time,
+     * "ended" after the silence timeout without any.
+     */
+    public volatile double speechActivityThresholdDb = SpeechActivityDetector.DEFAULT_THRESHOLD_DB;
+    public volatile long speechActivityStartConfirmMs = SpeechActivityDetector.DEFAULT_START_CONFIRM_MS;
+    public volatile long speechActivitySilenceTimeoutMs = SpeechActivityDetector.DEFAULT_SILENCE_TIMEOUT_MS;
+
+    /**
+     * Use a noise floor tracked at runtime instead of the fixed threshold: a
+     * chunk counts as speech when it is the margin (in dB) above the floor and
+     * its spectral shape looks like voice, which rejects most typing and hiss.
+     */
+    public volatile boolean speechActivityAdaptive;
+    public volatile double speechActivityAdaptiveMarginDb = SpeechActivityDetector.DEFAULT_ADAPTIVE_MARGIN_DB;
+
     /**
      * Provider for screen share audio bytes. When set, the AudioDeviceModule's
      * AudioBufferCallback will mix screen audio into the mic buffer before
@@ -35,20 +78,46 @@ public class WebRTCModuleOptions {
      * any audio processing factory (including noise cancellation).
      *
      * Set this when screen share audio capture starts, clear it when it stops.
+     * {@link ScreenAudioRingBuffer} is a ready-made provider which capture code
+     * can simply write into.
      */
     public volatile ScreenAudioBytesProvider screenAudioBytesProvider;
 
+    /**
+     * Gains applied to the mic and the screen audio when mixing them. Sums
+     * above full scale are soft clipped, see {@link ScreenAudioMixer}.
+     */
+    public volatile float micAudioMixGain = 1f;
+    public volatile float screenAudioMixGain = 1f;
+
     /**
      * Functional interface for providing screen audio bytes on demand.
      */
     public interface ScreenAudioBytesProvider {
         /**
-         * Returns a ByteBuffer containing screen audio PCM data.
+         * Returns a ByteBuffer containing screen audio PCM 16-bit LE data,
+         * read from index 0 up to its limit.
          *
-         * @param bytesRequested number of bytes to read (matching mic buffer size)
+         * @param bytesRequested number of bytes to read, covering the same
+         *                       duration as the mic buffer in this provider's
+         *                       format
          * @return ByteBuffer with screen audio, or null if not available
          */
         ByteBuffer getScreenAudioBytes(int bytesRequested);
+
+        /**
+         * Sample rate of the returned audio, or 0 if it matches the mic.
+         */
+        default int getScreenAudioSampleRate() {
+            return 0;
+        }
+
+        /**
+         * Channel count of the returned audio, or 0 if it matches the mic.
+         */
+        default int getScreenAudioChannelCount() {
+            return 0;
+        }
     }
 
     /**
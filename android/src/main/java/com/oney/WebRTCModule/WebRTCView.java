@@ -4,21 +4,25 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Color;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.util.Log;
+import android.view.SurfaceView;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 
+import androidx.annotation.Nullable;
 import androidx.core.view.ViewCompat;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.WritableMap;
 
-import org.webrtc.EglBase;
-import org.webrtc.Logging;
 import org.webrtc.MediaStream;
 import org.webrtc.RendererCommon;
 import org.webrtc.RendererCommon.RendererEvents;
 import org.webrtc.RendererCommon.ScalingType;
-import org.webrtc.SurfaceViewRenderer;
 import org.webrtc.VideoTrack;
 
 import java.lang.reflect.InvocationTargetException;
@@ -46,14 +50,6 @@ public class WebRTCView extends ViewGroup {
 
     private static final String TAG = WebRTCModule.TAG;
 
-    /**
-     * The number of instances for {@link SurfaceViewRenderer}, used for logging.
-     * When the renderer is initialized, it creates a new {@link javax.microedition.khronos.egl.EGLContext}
-     * which can throw an exception, probably due to memory limitations. We log the number of instances that can
-     * be created before the exception is thrown.
-     */
-    private static int surfaceViewRendererInstances;
-
     /**
      * The height of the last video frame rendered by
      * {@link #surfaceViewRenderer}.
@@ -86,11 +82,38 @@ public class WebRTCView extends ViewGroup {
     private boolean mirror;
 
     /**
-     * Indicates if the {@link SurfaceViewRenderer} is attached to the video
+     * Indicates if {@link #surfaceViewRenderer} is attached to the video
      * track.
      */
     private boolean rendererAttached;
 
+    /**
+     * Whether this view stops feeding {@link #surfaceViewRenderer} while it
+     * can't be seen, see {@link #setPauseWhenHidden(boolean)}.
+     */
+    private boolean pauseWhenHidden;
+
+    /**
+     * Whether this view was last found to be invisible (hidden, in a hidden
+     * window, clipped away by a scrolling ancestor, or fully transparent).
+     * Only tracked while {@link #pauseWhenHidden} is set.
+     */
+    private boolean hidden;
+
+    /**
+     * Scratch rect for {@link #isVisibleOnScreen()}.
+     */
+    private final Rect visibleRect = new Rect();
+
+    /**
+     * Re-checks visibility before every draw of the window, which covers
+     * scrolling, layout changes and alpha animations.
+     */
+    private final ViewTreeObserver.OnPreDrawListener visibilityListener = () -> {
+        updateVisibility();
+        return true;
+    };
+
     /**
      * The {@code RendererEvents} which listens to rendering events reported by
      * {@link #surfaceViewRenderer}.
@@ -135,23 +158,44 @@ public class WebRTCView extends ViewGroup {
 
     /**
      * The {@link View} and {@link VideoSink} implementation which
-     * actually renders {@link #videoTrack} on behalf of this instance.
+     * actually renders {@link #videoTrack} on behalf of this instance. Taken
+     * from the {@link VideoRendererPool} while rendering is in progress,
+     * {@code null} otherwise.
      */
-    private final SurfaceViewRenderer surfaceViewRenderer;
+    @Nullable
+    private VideoViewRenderer surfaceViewRenderer;
+
+    /**
+     * The sink actually added to {@link #videoTrack}. Applies the maximum
+     * frame rate and scaling to the view's size before passing frames on to
+     * {@link #surfaceViewRenderer}.
+     */
+    private final RenderFrameFilter frameFilter;
 
     /**
      * The {@code VideoTrack}, if any, rendered by this {@code WebRTCView}.
      */
     private VideoTrack videoTrack;
 
+    /**
+     * The id of {@link #videoTrack}, read on the executor when the track was
+     * looked up. The track may be disposed while this view still holds it,
+     * and {@link VideoTrack#id()} throws then.
+     */
+    @Nullable
+    private String videoTrackId;
+
+    /**
+     * The z-order set through {@link #setZOrder(int)}, applied to every
+     * renderer this view takes from the pool.
+     */
+    private int zOrder;
+
     public WebRTCView(Context context) {
         super(context);
 
-        surfaceViewRenderer = new SurfaceViewRenderer(context);
-        addView(surfaceViewRenderer);
-
-        setMirror(false);
-        setScalingType(DEFAULT_SCALING_TYPE);
+        frameFilter = new RenderFrameFilter(this::onFirstFrameRendered);
+        scalingType = DEFAULT_SCALING_TYPE;
     }
 
     /**
@@ -159,8 +203,10 @@ public class WebRTCView extends ViewGroup {
      * opaque black and the surface part to transparent.
      */
     private void cleanSurfaceViewRenderer() {
-        surfaceViewRenderer.setBackgroundColor(Color.BLACK);
-        surfaceViewRenderer.clearImage();
+        if (surfaceViewRenderer != null) {
+            surfaceViewRenderer.getView().setBackgroundColor(Color.BLACK);
+            surfaceViewRenderer.clearImage();
+        }
     }
 
     /**
@@ -169,11 +215,12 @@ public class WebRTCView extends ViewGroup {
      * on the WebRTC executor thread and posting the result back to the UI thread.
      *
      * @param streamURL The stream URL to lookup
-     * @param callback Callback invoked on UI thread with the VideoTrack (or null if not found)
+     * @param callback Callback invoked on UI thread with the VideoTrack and its id (or nulls if not found)
      */
-    private void getVideoTrackForStreamURL(String streamURL, java.util.function.Consumer<VideoTrack> callback) {
+    private void getVideoTrackForStreamURL(
+            String streamURL, java.util.function.BiConsumer<VideoTrack, String> callback) {
         if (streamURL == null) {
-            callback.accept(null);
+            callback.accept(null, null);
             return;
         }
 
@@ -186,7 +233,7 @@ public class WebRTCView extends ViewGroup {
                 MediaStream stream = module.getStreamForReactTag(streamURL);
                 if (stream == null) {
                     Log.w(TAG, "Stream not found for URL: " + streamURL);
-                    post(() -> callback.accept(null));
+                    post(() -> callback.accept(null, null));
                     return;
                 }
 
@@ -198,16 +245,17 @@ public class WebRTCView extends ViewGroup {
 
                 if (videoTrack == null) {
                     Log.w(TAG, "No video stream for react tag: " + streamURL);
-                    post(() -> callback.accept(null));
+                    post(() -> callback.accept(null, null));
                     return;
                 }
 
                 // Post result back to UI thread
                 final VideoTrack result = videoTrack;
-                post(() -> callback.accept(result));
+                final String resultId = videoTrack.id();
+                post(() -> callback.accept(result, resultId));
             } catch (Throwable tr) {
                 Log.e(TAG, "Error getting video track for stream URL: " + streamURL, tr);
-                post(() -> callback.accept(null));
+                post(() -> callback.accept(null, null));
             }
         });
     }
@@ -221,6 +269,9 @@ public class WebRTCView extends ViewGroup {
             // window. Additionally, a memory leak was solved in a similar way
             // on iOS.
             tryAddRendererToVideoTrack();
+            if (pauseWhenHidden) {
+                getViewTreeObserver().addOnPreDrawListener(visibilityListener);
+            }
         } finally {
             super.onAttachedToWindow();
         }
@@ -235,21 +286,105 @@ public class WebRTCView extends ViewGroup {
             // window. Additionally, a memory leak was solved in a similar way
             // on iOS.
             removeRendererFromVideoTrack();
+            getViewTreeObserver().removeOnPreDrawListener(visibilityListener);
         } finally {
             super.onDetachedFromWindow();
         }
     }
 
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateVisibility();
+    }
+
+    /**
+     * Sets whether this view stops rendering while it can't be seen: when it
+     * or its window is hidden, when it is scrolled out of view (e.g. out of a
+     * FlatList viewport) or when it is fully transparent. The renderer stays
+     * initialized, only the video track stops delivering frames to it, and a
+     * {@code videoViewVisibilityChanged} event lets the app stop receiving the
+     * video altogether.
+     *
+     * @param pauseWhenHidden {@code true} to track visibility.
+     */
+    public void setPauseWhenHidden(boolean pauseWhenHidden) {
+        if (this.pauseWhenHidden == pauseWhenHidden) {
+            return;
+        }
+        this.pauseWhenHidden = pauseWhenHidden;
+
+        if (pauseWhenHidden) {
+            if (ViewCompat.isAttachedToWindow(this)) {
+                getViewTreeObserver().addOnPreDrawListener(visibilityListener);
+            }
+            updateVisibility();
+        } else {
+            getViewTreeObserver().removeOnPreDrawListener(visibilityListener);
+            setHidden(false);
+        }
+    }
+
+    private void updateVisibility() {
+        if (pauseWhenHidden && ViewCompat.isAttachedToWindow(this)) {
+            setHidden(!isVisibleOnScreen());
+        }
+    }
+
+    private boolean isVisibleOnScreen() {
+        if (!isShown() || getWindowVisibility() != VISIBLE || !getGlobalVisibleRect(visibleRect)) {
+            return false;
+        }
+
+        float alpha = getAlpha();
+        for (ViewParent parent = getParent(); alpha > 0 && parent instanceof View; parent = parent.getParent()) {
+            alpha *= ((View) parent).getAlpha();
+        }
+        return alpha > 0;
+    }
+
+    private void setHidden(boolean hidden) {
+        if (this.hidden == hidden) {
+            return;
+        }
+        this.hidden = hidden;
+
+        if (rendererAttached && videoTrack != null) {
+            if (hidden) {
+                removeSink(videoTrack);
+            } else {
+                addSink(videoTrack);
+            }
+        }
+
+        ReactContext reactContext = (ReactContext) getContext();
+        WebRTCModule module = reactContext.getNativeModule(WebRTCModule.class);
+        if (module != null) {
+            WritableMap params = Arguments.createMap();
+            params.putInt("reactTag", getId());
+            params.putString("streamURL", streamURL);
+            if (videoTrackId != null) {
+                params.putString("trackId", videoTrackId);
+            }
+            params.putBoolean("visible", !hidden);
+            module.sendEvent("videoViewVisibilityChanged", params);
+        }
+    }
+
     /**
      * Callback fired by {@link #surfaceViewRenderer} when the first frame is
-     * rendered. Here we will set the background of the view part of the
+     * rendered, and by {@link #frameFilter} when it passed the first frame on
+     * to a renderer (a pooled {@code SurfaceViewRenderer} reports its first
+     * frame only once in its lifetime). Here we will set the background of the view part of the
      * SurfaceView to transparent, so the surface (where video is actually
      * rendered) shines through.
      */
     private void onFirstFrameRendered() {
         post(() -> {
             Log.d(TAG, "First frame rendered.");
-            surfaceViewRenderer.setBackgroundColor(Color.TRANSPARENT);
+            if (surfaceViewRenderer != null) {
+                surfaceViewRenderer.getView().setBackgroundColor(Color.TRANSPARENT);
+            }
         });
     }
 
@@ -289,6 +424,11 @@ public class WebRTCView extends ViewGroup {
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         int height = b - t;
         int width = r - l;
+        frameFilter.setViewSize(width, height);
+
+        if (surfaceViewRenderer == null) {
+            return;
+        }
 
         if (height == 0 || width == 0) {
             l = t = r = b = 0;
@@ -338,7 +478,7 @@ public class WebRTCView extends ViewGroup {
                     break;
             }
         }
-        surfaceViewRenderer.layout(l, t, r, b);
+        surfaceViewRenderer.getView().layout(l, t, r, b);
     }
 
     /**
@@ -348,19 +488,14 @@ public class WebRTCView extends ViewGroup {
     private void removeRendererFromVideoTrack() {
         if (rendererAttached) {
             if (videoTrack != null) {
-                ThreadUtils.runOnExecutor(() -> {
-                    try {
-                        videoTrack.removeSink(surfaceViewRenderer);
-                    } catch (Throwable tr) {
-                        // XXX If WebRTCModule#mediaStreamTrackRelease has already been
-                        // invoked on videoTrack, then it is no longer safe to call removeSink
-                        // on the instance, it will throw IllegalStateException.
-                    }
-                });
+                removeSink(videoTrack);
             }
+            // The sink is removed asynchronously, make sure no more frames
+            // reach the renderer once it is back in the pool.
+            frameFilter.setSink(null);
 
-            surfaceViewRenderer.release();
-            surfaceViewRendererInstances--;
+            VideoRendererPool.getInstance().release(surfaceViewRenderer);
+            surfaceViewRenderer = null;
             rendererAttached = false;
 
             // Since this WebRTCView is no longer rendering anything, make sure
@@ -381,9 +516,12 @@ public class WebRTCView extends ViewGroup {
      */
     @SuppressLint("WrongCall")
     private void requestSurfaceViewRendererLayout() {
+        if (surfaceViewRenderer == null) {
+            return;
+        }
         // Google/WebRTC just call requestLayout() on surfaceViewRenderer when
         // they change the value of its mirror or surfaceType property.
-        surfaceViewRenderer.requestLayout();
+        surfaceViewRenderer.getView().requestLayout();
         // The above is not enough though when the video frame's dimensions or
         // rotation change. The following will suffice.
         if (!ViewCompat.isInLayout(this)) {
@@ -403,13 +541,36 @@ public class WebRTCView extends ViewGroup {
     public void setMirror(boolean mirror) {
         if (this.mirror != mirror) {
             this.mirror = mirror;
-            surfaceViewRenderer.setMirror(mirror);
+            if (surfaceViewRenderer != null) {
+                surfaceViewRenderer.setMirror(mirror);
+            }
             // SurfaceViewRenderer takes the value of its mirror property into
             // account upon its layout.
             requestSurfaceViewRendererLayout();
         }
     }
 
+    /**
+     * Sets the highest frame rate at which this {@code WebRTCView} renders
+     * the video. Frames above it are dropped before they reach the renderer.
+     *
+     * @param maxRenderFps The maximum frame rate, or 0 for no limit.
+     */
+    public void setMaxRenderFps(float maxRenderFps) {
+        frameFilter.setMaxFps(maxRenderFps);
+    }
+
+    /**
+     * Sets whether video frames much larger than this {@code WebRTCView} are
+     * scaled down to its size before they are uploaded for rendering, which
+     * saves GPU memory bandwidth for thumbnails of high-resolution video.
+     *
+     * @param scaleToViewSize {@code true} to scale frames down to the view.
+     */
+    public void setScaleToViewSize(boolean scaleToViewSize) {
+        frameFilter.setScaleToViewSize(scaleToViewSize);
+    }
+
     /**
      * In the fashion of
      * https://www.w3.org/TR/html5/embedded-content-0.html#dom-video-videowidth
@@ -433,7 +594,9 @@ public class WebRTCView extends ViewGroup {
                 return;
             }
             this.scalingType = scalingType;
-            surfaceViewRenderer.setScalingType(scalingType);
+            if (surfaceViewRenderer != null) {
+                surfaceViewRenderer.setScalingType(scalingType);
+            }
         }
         // Both this instance ant its SurfaceViewRenderer take the value of
         // their scalingType properties into account upon their layouts.
@@ -464,17 +627,17 @@ public class WebRTCView extends ViewGroup {
         // VideoTracks (the old and the new) may start rendering and, most
         // importantly the videoRender may eventually crash when the old
         // videoTrack is disposed.
-        getVideoTrackForStreamURL(streamURL, videoTrack -> {
+        getVideoTrackForStreamURL(streamURL, (videoTrack, videoTrackId) -> {
             Log.d(TAG, "Got video track for stream URL " + streamURL + " -> " + videoTrack);
             if (this.videoTrack != videoTrack) {
-                setVideoTrack(null);
+                setVideoTrack(null, null);
             }
 
             this.streamURL = streamURL;
 
             // After realizing/applying the change in the value of
             // this.streamURL, reflect it on the value of videoTrack.
-            setVideoTrack(videoTrack);
+            setVideoTrack(videoTrack, videoTrackId);
         });
     }
 
@@ -483,8 +646,9 @@ public class WebRTCView extends ViewGroup {
      *
      * @param videoTrack The {@code VideoTrack} to be rendered by this
      * {@code WebRTCView} or {@code null}.
+     * @param videoTrackId The id of {@code videoTrack} or {@code null}.
      */
-    private void setVideoTrack(VideoTrack videoTrack) {
+    private void setVideoTrack(VideoTrack videoTrack, @Nullable String videoTrackId) {
         VideoTrack oldVideoTrack = this.videoTrack;
 
         if (oldVideoTrack != videoTrack) {
@@ -498,6 +662,7 @@ public class WebRTCView extends ViewGroup {
             }
 
             this.videoTrack = videoTrack;
+            this.videoTrackId = videoTrackId;
 
             if (videoTrack != null) {
                 tryAddRendererToVideoTrack();
@@ -519,15 +684,26 @@ public class WebRTCView extends ViewGroup {
      * @param zOrder The z-order to set on this {@code WebRTCView}.
      */
     public void setZOrder(int zOrder) {
+        this.zOrder = zOrder;
+        if (surfaceViewRenderer != null) {
+            applyZOrder(surfaceViewRenderer.getView());
+        }
+    }
+
+    private void applyZOrder(SurfaceView view) {
+        // A pooled renderer may carry the z-order of the view which used it
+        // before, so every value is set explicitly.
         switch (zOrder) {
             case 0:
-                surfaceViewRenderer.setZOrderMediaOverlay(false);
+                view.setZOrderOnTop(false);
+                view.setZOrderMediaOverlay(false);
                 break;
             case 1:
-                surfaceViewRenderer.setZOrderMediaOverlay(true);
+                view.setZOrderOnTop(false);
+                view.setZOrderMediaOverlay(true);
                 break;
             case 2:
-                surfaceViewRenderer.setZOrderOnTop(true);
+                view.setZOrderOnTop(true);
                 break;
         }
     }
@@ -538,37 +714,54 @@ public class WebRTCView extends ViewGroup {
      */
     private void tryAddRendererToVideoTrack() {
         if (!rendererAttached && videoTrack != null && ViewCompat.isAttachedToWindow(this)) {
-            EglBase.Context sharedContext = EglUtils.getRootEglBaseContext();
-
-            if (sharedContext == null) {
-                // If SurfaceViewRenderer#init() is invoked, it will throw a
-                // RuntimeException which will very likely kill the application.
-                Log.e(TAG, "Failed to render a VideoTrack!");
+            // The pool hands out an initialized renderer, reused from a view
+            // which unmounted earlier when possible.
+            VideoViewRenderer renderer = VideoRendererPool.getInstance().acquire(getContext(), rendererEvents);
+            if (renderer == null) {
                 return;
             }
 
-            try {
-                surfaceViewRenderer.init(sharedContext, rendererEvents);
-                surfaceViewRendererInstances++;
-            } catch (Exception e) {
-                Logging.e(
-                        TAG, "Failed to initialize surfaceViewRenderer on instance " + surfaceViewRendererInstances, e);
-                return;
+            surfaceViewRenderer = renderer;
+            renderer.setMirror(mirror);
+            renderer.setScalingType(scalingType);
+            applyZOrder(renderer.getView());
+            addView(renderer.getView());
+            cleanSurfaceViewRenderer();
+            frameFilter.setSink(renderer);
+
+            // A hidden view gets its sink added once it becomes visible.
+            if (!hidden) {
+                addSink(videoTrack);
             }
 
-            ThreadUtils.runOnExecutor(() -> {
-                try {
-                    videoTrack.addSink(surfaceViewRenderer);
-                } catch (Throwable tr) {
-                    // XXX If WebRTCModule#mediaStreamTrackRelease has already been
-                    // invoked on videoTrack, then it is no longer safe to call addSink
-                    // on the instance, it will throw IllegalStateException.
-
-                    Log.e(TAG, "Failed to add renderer", tr);
-                }
-            });
-
             rendererAttached = true;
+            requestSurfaceViewRendererLayout();
         }
     }
+
+    private void removeSink(VideoTrack videoTrack) {
+        ThreadUtils.runOnExecutor(() -> {
+            try {
+                videoTrack.removeSink(frameFilter);
+            } catch (Throwable tr) {
+                // XXX If WebRTCModule#mediaStreamTrackRelease has already been
+                // invoked on videoTrack, then it is no longer safe to call removeSink
+                // on the instance, it will throw IllegalStateException.
+            }
+        });
+    }
+
+    private void addSink(VideoTrack videoTrack) {
+        ThreadUtils.runOnExecutor(() -> {
+            try {
+                videoTrack.addSink(frameFilter);
+            } catch (Throwable tr) {
+                // XXX If WebRTCModule#mediaStreamTrackRelease has already been
+                // invoked on videoTrack, then it is no longer safe to call addSink
+                // on the instance, it will throw IllegalStateException.
+
+                Log.e(TAG, "Failed to add renderer", tr);
+            }
+        });
+    }
 }
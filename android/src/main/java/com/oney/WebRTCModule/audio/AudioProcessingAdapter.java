@@ -1,5 +1,7 @@
 package com.oney.WebRTCModule.audio;
 
+import android.util.Log;
+
 import org.webrtc.ExternalAudioProcessingFactory;
 
 import java.nio.ByteBuffer;
@@ -7,6 +9,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class AudioProcessingAdapter implements ExternalAudioProcessingFactory.AudioProcessing {
+    private static final String TAG = AudioProcessingAdapter.class.getSimpleName();
+
+    /**
+     * How long {@link #removeProcessor} waits for a pass over the old chain;
+     * a pass normally takes well under the 10 ms frame.
+     */
+    private static final long QUIESCE_TIMEOUT_MS = 100;
+
     public interface ExternalAudioFrameProcessing {
         void initialize(int sampleRateHz, int numChannels);
 
@@ -15,45 +25,206 @@ public class AudioProcessingAdapter implements ExternalAudioProcessingFactory.Au
         void process(int numBands, int numFrames, ByteBuffer buffer);
     }
 
+    /**
+     * Per-processor timing of {@link ExternalAudioFrameProcessing#process}, see
+     * {@link #getProcessorTimings()}.
+     */
+    public static final class ProcessorTiming {
+        public final ExternalAudioFrameProcessing processor;
+        public final long frames;
+        public final double averageMicros;
+        public final double maxMicros;
+
+        ProcessorTiming(ExternalAudioFrameProcessing processor, long frames, double averageMicros, double maxMicros) {
+            this.processor = processor;
+            this.frames = frames;
+            this.averageMicros = averageMicros;
+            this.maxMicros = maxMicros;
+        }
+    }
+
     public AudioProcessingAdapter() {}
-    List<ExternalAudioFrameProcessing> audioProcessors = new ArrayList<>();
+
+    /**
+     * The processor chain. {@link #process} runs on the real-time audio thread
+     * every 10 ms, so it only reads this snapshot and never takes a lock;
+     * changes copy the array and swap it in under {@link #writeLock}.
+     */
+    private volatile Slot[] slots = new Slot[0];
+    private final Object writeLock = new Object();
+
+    /**
+     * Passes over the chain started and finished. Only the audio processing
+     * calls write them, and WebRTC serializes those, so {@link #removeProcessor}
+     * can wait for a pass without the audio thread ever taking a lock.
+     */
+    private volatile long passesStarted;
+    private volatile long passesFinished;
+
+    private volatile boolean timingEnabled = false;
 
     public void addProcessor(ExternalAudioFrameProcessing audioProcessor) {
-        synchronized (audioProcessors) {
-            audioProcessors.add(audioProcessor);
+        synchronized (writeLock) {
+            Slot[] current = slots;
+            Slot[] updated = new Slot[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new Slot(audioProcessor);
+            slots = updated;
         }
     }
 
+    /**
+     * Removes the processor from the chain. Once this returns, the audio thread
+     * is done with it and it can be released, unless a pass over the chain
+     * didn't finish within {@link #QUIESCE_TIMEOUT_MS} (or this is called from
+     * the processor itself): then it may still be invoked once after removal.
+     */
     public void removeProcessor(ExternalAudioFrameProcessing audioProcessor) {
-        synchronized (audioProcessors) {
-            audioProcessors.remove(audioProcessor);
+        synchronized (writeLock) {
+            Slot[] current = slots;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].processor.equals(audioProcessor)) {
+                    Slot[] updated = new Slot[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    slots = updated;
+                    break;
+                }
+            }
+        }
+
+        awaitQuiescence();
+    }
+
+    /**
+     * Waits until every pass that may have read the chain before the last swap
+     * has finished. A pass counts itself started before reading the chain.
+     */
+    private void awaitQuiescence() {
+        long target = passesStarted;
+        if (passesFinished >= target) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + QUIESCE_TIMEOUT_MS * 1_000_000L;
+        try {
+            while (passesFinished < target) {
+                if (System.nanoTime() - deadline >= 0) {
+                    Log.w(TAG, "removeProcessor() timed out waiting for the audio thread");
+                    return;
+                }
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enables measuring how long each processor takes per frame. Off by default;
+     * while off, processing doesn't read the clock.
+     */
+    public void setTimingEnabled(boolean enabled) {
+        timingEnabled = enabled;
+    }
+
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    /**
+     * Returns the timing of every processor in the chain, in chain order,
+     * since it was added or since the last {@link #resetProcessorTimings()}.
+     */
+    public List<ProcessorTiming> getProcessorTimings() {
+        Slot[] current = slots;
+        List<ProcessorTiming> timings = new ArrayList<>(current.length);
+        for (Slot slot : current) {
+            Timing timing = slot.timing;
+            long frames = timing.frames;
+            double averageMicros = frames == 0 ? 0 : timing.totalNanos / (double) frames / 1000.0;
+            timings.add(new ProcessorTiming(slot.processor, frames, averageMicros, timing.maxNanos / 1000.0));
+        }
+        return timings;
+    }
+
+    public void resetProcessorTimings() {
+        for (Slot slot : slots) {
+            // Swapped rather than cleared: only the audio thread writes to a Timing.
+            slot.timing = new Timing();
         }
     }
 
     @Override
     public void initialize(int sampleRateHz, int numChannels) {
-        synchronized (audioProcessors) {
-            for (ExternalAudioFrameProcessing audioProcessor : audioProcessors) {
-                audioProcessor.initialize(sampleRateHz, numChannels);
+        long pass = ++passesStarted;
+        try {
+            for (Slot slot : slots) {
+                slot.processor.initialize(sampleRateHz, numChannels);
             }
+        } finally {
+            passesFinished = pass;
         }
     }
 
     @Override
     public void reset(int newRate) {
-        synchronized (audioProcessors) {
-            for (ExternalAudioFrameProcessing audioProcessor : audioProcessors) {
-                audioProcessor.reset(newRate);
+        long pass = ++passesStarted;
+        try {
+            for (Slot slot : slots) {
+                slot.processor.reset(newRate);
             }
+        } finally {
+            passesFinished = pass;
         }
     }
 
     @Override
     public void process(int numBands, int numFrames, ByteBuffer buffer) {
-        synchronized (audioProcessors) {
-            for (ExternalAudioFrameProcessing audioProcessor : audioProcessors) {
-                audioProcessor.process(numBands, numFrames, buffer);
+        long pass = ++passesStarted;
+        try {
+            Slot[] current = slots;
+            if (!timingEnabled) {
+                for (Slot slot : current) {
+                    slot.processor.process(numBands, numFrames, buffer);
+                }
+                return;
+            }
+
+            for (Slot slot : current) {
+                long start = System.nanoTime();
+                slot.processor.process(numBands, numFrames, buffer);
+                slot.timing.record(System.nanoTime() - start);
+            }
+        } finally {
+            passesFinished = pass;
+        }
+    }
+
+    private static final class Slot {
+        final ExternalAudioFrameProcessing processor;
+        volatile Timing timing = new Timing();
+
+        Slot(ExternalAudioFrameProcessing processor) {
+            this.processor = processor;
+        }
+    }
+
+    /**
+     * Written only by the audio thread; the volatile fields let other threads
+     * read consistent (if slightly stale) values.
+     */
+    private static final class Timing {
+        volatile long frames;
+        volatile long totalNanos;
+        volatile long maxNanos;
+
+        void record(long nanos) {
+            frames++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
             }
         }
     }
-}
\ No newline at end of file
+}
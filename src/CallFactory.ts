@@ -1,5 +1,7 @@
 import { NativeModules } from 'react-native';
 
+import { invalidateCapabilities } from './RTCRtpCapabilities';
+
 const { WebRTCModule } = NativeModules;
 
 export interface CallFactoryOptions {
@@ -25,16 +27,20 @@ export interface CallFactoryOptions {
 export default class CallFactory {
     /** Builds a fresh native factory with the given audio profile and makes it the live factory. */
     static async create(options: CallFactoryOptions = {}): Promise<CallFactory> {
+        invalidateCapabilities();
         await WebRTCModule.createCallFactory({
             bypassVoiceProcessing: options.bypassVoiceProcessing ?? false,
             stereoInputEnabled: options.stereoInputEnabled ?? false
         });
+        invalidateCapabilities();
 
         return new CallFactory();
     }
 
     /** Disposes the live call factory and its ADM. Resolves to true if a factory was disposed. */
     dispose(): Promise<boolean> {
-        return WebRTCModule.disposeCallFactory();
+        invalidateCapabilities();
+
+        return WebRTCModule.disposeCallFactory().finally(invalidateCapabilities);
     }
 }
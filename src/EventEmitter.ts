@@ -1,4 +1,4 @@
-import { NativeModules, NativeEventEmitter, EmitterSubscription } from 'react-native';
+import { DeviceEventEmitter, NativeModules, NativeEventEmitter, EmitterSubscription, Platform } from 'react-native';
 // @ts-ignore
 import EventEmitter from 'react-native/Libraries/vendor/emitter/EventEmitter';
 
@@ -26,14 +26,104 @@ const NATIVE_EVENTS = [
     'mediaStreamTrackEnded',
 ];
 
+// Events only the Android module emits. iOS doesn't list them in its
+// supportedEvents, and subscribing to them there is an error.
+const ANDROID_NATIVE_EVENTS = [
+    'executorMetrics',
+    'peerConnectionGotICECandidates',
+    'peerConnectionStatsSample',
+    'dataChannelReceiveMessages',
+];
+
 const eventEmitter = new EventEmitter();
 
 export function setupNativeEvents() {
-    for (const eventName of NATIVE_EVENTS) {
+    const eventNames = Platform.OS === 'android' ? [ ...NATIVE_EVENTS, ...ANDROID_NATIVE_EVENTS ] : NATIVE_EVENTS;
+
+    for (const eventName of eventNames) {
         nativeEmitter.addListener(eventName, (...args) => {
             eventEmitter.emit(eventName, ...args);
         });
     }
+
+    if (Platform.OS === 'android') {
+        // With event batching enabled, events sent within the same frame arrive
+        // together. Re-emit them one by one so every listener (including the ones
+        // subscribed directly to the native emitter) sees them as usual.
+        nativeEmitter.addListener('eventBatch', ({ events }) => {
+            for (const { name, params } of events) {
+                DeviceEventEmitter.emit(name, params);
+            }
+        });
+    }
+}
+
+/**
+ * Enables or disables batching of native events (Android only). When enabled,
+ * high-volume events emitted within the same frame cross the bridge in a single
+ * call, and state updates (mute, dimensions) for the same track are coalesced.
+ */
+export function setEventBatchingEnabled(enabled: boolean): void {
+    if (Platform.OS === 'android') {
+        WebRTCModule.eventBatchingSetEnabled(enabled);
+    }
+}
+
+export type ExecutorMetricsHistogram = {
+    avgMs: number;
+    maxMs: number;
+    /** Counts per bucket, see histogramBoundsMs. */
+    histogram: number[];
+};
+
+export type ExecutorMetrics = {
+    enabled: boolean;
+    queueDepth: number;
+    maxQueueDepth: number;
+    /** Total time the JS thread was blocked on synchronous methods. */
+    blockedMs: number;
+    /** Upper bounds (exclusive) of the histogram buckets, the last bucket is open-ended. */
+    histogramBoundsMs: number[];
+    operations: {
+        [operation: string]: {
+            count: number;
+            wait: ExecutorMetricsHistogram;
+            run: ExecutorMetricsHistogram;
+            blocked?: ExecutorMetricsHistogram;
+        };
+    };
+};
+
+/**
+ * Enables or disables the instrumentation of the native executor (Android
+ * only). With a positive reportIntervalMs, the samples collected since the
+ * previous report are delivered to {@link addExecutorMetricsListener}
+ * listeners periodically.
+ */
+export function setExecutorMetricsEnabled(enabled: boolean, reportIntervalMs = 0): void {
+    if (Platform.OS === 'android') {
+        WebRTCModule.executorMetricsSetEnabled(enabled, reportIntervalMs);
+    }
+}
+
+/**
+ * Resolves with the executor metrics collected so far (Android only, null
+ * elsewhere), optionally starting over afterwards.
+ */
+export function getExecutorMetrics(reset = false): Promise<ExecutorMetrics | null> {
+    if (Platform.OS !== 'android') {
+        return Promise.resolve(null);
+    }
+
+    return WebRTCModule.executorMetricsGet(reset);
+}
+
+/**
+ * Subscribes to the periodic executor metrics reports, see
+ * {@link setExecutorMetricsEnabled}.
+ */
+export function addExecutorMetricsListener(listener: (metrics: ExecutorMetrics) => void): EmitterSubscription {
+    return eventEmitter.addListener('executorMetrics', listener);
 }
 
 type EventHandler = (event: unknown) => void;
@@ -42,7 +132,7 @@ type Listener = unknown;
 const _subscriptions: Map<Listener, EmitterSubscription[]> = new Map();
 
 export function addListener(listener: Listener, eventName: string, eventHandler: EventHandler): void {
-    if (!NATIVE_EVENTS.includes(eventName)) {
+    if (!NATIVE_EVENTS.includes(eventName) && !ANDROID_NATIVE_EVENTS.includes(eventName)) {
         throw new Error(`Invalid event: ${eventName}`);
     }
 
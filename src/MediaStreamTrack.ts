@@ -47,6 +47,12 @@ export default class MediaStreamTrack extends EventTarget<MediaStreamTrackEventM
     _peerConnectionId: number;
     _readyState: MediaStreamTrackState;
 
+    /**
+     * Settles once a pending non-blocking sender removal is done with this
+     * track; releasing the track waits for it.
+     */
+    _releaseBarrier: Promise<unknown> | null = null;
+
     readonly id: string;
     readonly kind: string;
     readonly label: string = '';
@@ -340,7 +346,15 @@ export default class MediaStreamTrack extends EventTarget<MediaStreamTrackEventM
         }
 
         removeListener(this);
-        WebRTCModule.mediaStreamTrackRelease(this.id);
+
+        if (this._releaseBarrier) {
+            const id = this.id;
+
+            this._releaseBarrier.finally(() => WebRTCModule.mediaStreamTrackRelease(id));
+            this._releaseBarrier = null;
+        } else {
+            WebRTCModule.mediaStreamTrackRelease(this.id);
+        }
 
         if (this.kind === 'video') {
             videoTrackDimensionChangedEventQueue.delete(this.id);
@@ -1,5 +1,5 @@
 import * as base64 from 'base64-js';
-import { NativeModules } from 'react-native';
+import { NativeModules, Platform } from 'react-native';
 
 import { addListener, removeListener } from './EventEmitter';
 import MessageEvent from './MessageEvent';
@@ -10,6 +10,15 @@ const { WebRTCModule } = NativeModules;
 
 type RTCDataChannelState = 'connecting' | 'open' | 'closing' | 'closed';
 
+export type RTCDataChannelMessageBatching = {
+    /** How long to accumulate inbound messages before delivering them, 0 disables batching. */
+    windowMs: number;
+    /** Deliver early once this many messages are pending. */
+    maxMessages?: number;
+    /** Deliver early once this many payload bytes are pending. */
+    maxBytes?: number;
+};
+
 type DataChannelEventMap = {
     bufferedamountlow: RTCDataChannelEvent<'bufferedamountlow'>;
     close: RTCDataChannelEvent<'close'>;
@@ -31,9 +40,10 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
     _ordered: boolean;
     _protocol: string;
     _readyState: RTCDataChannelState;
+    _bufferedAmountLowThreshold: number;
+    _bufferedAmountMaxEventsPerSecond: number | null;
 
     binaryType = 'arraybuffer'; // we only support 'arraybuffer'
-    bufferedAmountLowThreshold = 0;
 
     constructor(info) {
         super();
@@ -50,6 +60,8 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
         this._protocol = info.protocol || '';
         this._negotiated = Boolean(info.negotiated);
         this._readyState = info.readyState;
+        this._bufferedAmountLowThreshold = 0;
+        this._bufferedAmountMaxEventsPerSecond = null;
 
         this._registerEvents();
     }
@@ -106,6 +118,40 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
         return this._bufferedAmount;
     }
 
+    get bufferedAmountLowThreshold(): number {
+        return this._bufferedAmountLowThreshold;
+    }
+
+    set bufferedAmountLowThreshold(value: number) {
+        this._bufferedAmountLowThreshold = value;
+
+        if (this._bufferedAmountMaxEventsPerSecond !== null) {
+            this._updateBufferedAmountThrottling();
+        }
+    }
+
+    /**
+     * Throttles bufferedAmount updates natively (Android only, no-op elsewhere). Only
+     * crossings of `bufferedAmountLowThreshold` plus at most `maxEventsPerSecond` other
+     * updates cross the bridge; pass `null` to get every update again.
+     */
+    setBufferedAmountEventThrottling(maxEventsPerSecond: number | null): void {
+        if (Platform.OS !== 'android') {
+            return;
+        }
+
+        this._bufferedAmountMaxEventsPerSecond = maxEventsPerSecond;
+        this._updateBufferedAmountThrottling();
+    }
+
+    _updateBufferedAmountThrottling(): void {
+        WebRTCModule.dataChannelSetBufferedAmountThrottling(this._peerConnectionId, this._reactTag, {
+            enabled: this._bufferedAmountMaxEventsPerSecond !== null,
+            lowThreshold: this._bufferedAmountLowThreshold,
+            maxEventsPerSecond: this._bufferedAmountMaxEventsPerSecond ?? 0
+        });
+    }
+
     get label(): string {
         return this._label;
     }
@@ -142,10 +188,45 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
     send(data: ArrayBuffer): void;
     send(data: ArrayBufferView): void;
     send(data: string | ArrayBuffer | ArrayBufferView): void {
-        if (typeof data === 'string') {
-            WebRTCModule.dataChannelSend(this._peerConnectionId, this._reactTag, data, 'text');
+        const message = this._encodeMessage(data);
 
-            return;
+        WebRTCModule.dataChannelSend(this._peerConnectionId, this._reactTag, message.data, message.type);
+    }
+
+    /**
+     * Sends several messages, in order, with a single native call (Android only; other
+     * platforms fall back to {@link send} per message). Sending stops once the channel's
+     * buffered amount reaches `highWaterMark`; the returned promise resolves with the
+     * number of messages sent, so the caller can wait for 'bufferedamountlow' and
+     * resume with the rest.
+     */
+    async sendBatch(
+        messages: Array<string | ArrayBuffer | ArrayBufferView>,
+        options: { highWaterMark?: number } = {}
+    ): Promise<number> {
+        const encoded = messages.map(m => this._encodeMessage(m));
+
+        if (Platform.OS !== 'android') {
+            encoded.forEach(m => WebRTCModule.dataChannelSend(this._peerConnectionId, this._reactTag, m.data, m.type));
+
+            return encoded.length;
+        }
+
+        const { sent, bufferedAmount } = await WebRTCModule.dataChannelSendBatch(
+            this._peerConnectionId,
+            this._reactTag,
+            encoded,
+            options.highWaterMark ?? 0
+        );
+
+        this._bufferedAmount = bufferedAmount;
+
+        return sent;
+    }
+
+    _encodeMessage(data: string | ArrayBuffer | ArrayBufferView): { type: string; data: string } {
+        if (typeof data === 'string') {
+            return { type: 'text', data };
         }
 
         // Safely convert the buffer object to an Uint8Array for base64-encoding
@@ -157,9 +238,7 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
             throw new TypeError('Data must be either string, ArrayBuffer, or ArrayBufferView');
         }
 
-        const base64data = base64.fromByteArray(data as Uint8Array);
-
-        WebRTCModule.dataChannelSend(this._peerConnectionId, this._reactTag, base64data, 'binary');
+        return { type: 'binary', data: base64.fromByteArray(data as Uint8Array) };
     }
 
     close(): void {
@@ -170,6 +249,29 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
         WebRTCModule.dataChannelClose(this._peerConnectionId, this._reactTag);
     }
 
+    /**
+     * Enables native-side batching of inbound messages (Android only, no-op elsewhere).
+     * Messages are still dispatched one 'message' event each, in order, but cross the
+     * bridge in batches, which helps with bursts of small messages.
+     */
+    setMessageBatching(options: RTCDataChannelMessageBatching): void {
+        if (Platform.OS !== 'android') {
+            return;
+        }
+
+        WebRTCModule.dataChannelSetMessageBatching(this._peerConnectionId, this._reactTag, options);
+    }
+
+    _dispatchMessage(message: { type: string; data: string }): void {
+        let data: string | ArrayBuffer = message.data;
+
+        if (message.type === 'binary') {
+            data = base64.toByteArray(message.data).buffer;
+        }
+
+        this.dispatchEvent(new MessageEvent('message', { data }));
+    }
+
     _registerEvents(): void {
         addListener(this, 'dataChannelStateChanged', (ev: any) => {
             if (ev.reactTag !== this._reactTag) {
@@ -201,13 +303,17 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
                 return;
             }
 
-            let data = ev.data;
+            this._dispatchMessage(ev);
+        });
 
-            if (ev.type === 'binary') {
-                data = base64.toByteArray(ev.data).buffer;
+        addListener(this, 'dataChannelReceiveMessages', (ev: any) => {
+            if (ev.reactTag !== this._reactTag) {
+                return;
             }
 
-            this.dispatchEvent(new MessageEvent('message', { data }));
+            for (const message of ev.messages) {
+                this._dispatchMessage(message);
+            }
         });
 
         addListener(this, 'dataChannelDidChangeBufferedAmount', (ev: any) => {
@@ -217,6 +323,15 @@ export default class RTCDataChannel extends EventTarget<DataChannelEventMap> {
 
             this._bufferedAmount = ev.bufferedAmount;
 
+            // Throttled events tell us about threshold crossings explicitly.
+            if (ev.lowThresholdCrossed !== undefined) {
+                if (ev.lowThresholdCrossed) {
+                    this.dispatchEvent(new RTCDataChannelEvent('bufferedamountlow', { channel: this }));
+                }
+
+                return;
+            }
+
             if (this._bufferedAmount < this.bufferedAmountLowThreshold) {
                 this.dispatchEvent(new RTCDataChannelEvent('bufferedamountlow', { channel: this }));
             }
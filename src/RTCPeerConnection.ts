@@ -1,4 +1,4 @@
-import { NativeModules } from 'react-native';
+import { NativeModules, Platform } from 'react-native';
 
 import { addListener, removeListener } from './EventEmitter';
 import Logger from './Logger';
@@ -10,12 +10,14 @@ import RTCDataChannel from './RTCDataChannel';
 import RTCDataChannelEvent from './RTCDataChannelEvent';
 import RTCIceCandidate from './RTCIceCandidate';
 import RTCIceCandidateEvent from './RTCIceCandidateEvent';
+import { prefetchCapabilities } from './RTCRtpCapabilities';
 import RTCRtpReceiveParameters from './RTCRtpReceiveParameters';
 import RTCRtpReceiver from './RTCRtpReceiver';
 import RTCRtpSendParameters from './RTCRtpSendParameters';
 import RTCRtpSender from './RTCRtpSender';
 import RTCRtpTransceiver from './RTCRtpTransceiver';
 import RTCSessionDescription, { RTCSessionDescriptionInit } from './RTCSessionDescription';
+import RTCStatsSampleEvent from './RTCStatsSampleEvent';
 import RTCTrackEvent from './RTCTrackEvent';
 import * as RTCUtil from './RTCUtil';
 import { RTCOfferOptions } from './RTCUtil';
@@ -63,6 +65,19 @@ type RTCConfiguration = {
     rtcpMuxPolicy?: 'negotiate' | 'require'
 };
 
+type RTCStatsFilterOptions = {
+    /**
+     * Stats type -> member names to keep, or `true` to keep every member of
+     * that type. Types which are not listed are dropped.
+     */
+    fields?: { [type: string]: string[] | true },
+    /**
+     * Only return stats and members whose value changed since the previous
+     * delta-only call for this peer connection (Android only).
+     */
+    deltaOnly?: boolean
+};
+
 type RTCPeerConnectionEventMap = {
     connectionstatechange: Event<'connectionstatechange'>
     icecandidate: RTCIceCandidateEvent<'icecandidate'>
@@ -71,6 +86,7 @@ type RTCPeerConnectionEventMap = {
     icegatheringstatechange: Event<'icegatheringstatechange'>
     negotiationneeded: Event<'negotiationneeded'>
     signalingstatechange: Event<'signalingstatechange'>
+    statssample: RTCStatsSampleEvent<'statssample'>
     datachannel: RTCDataChannelEvent<'datachannel'>
     track: RTCTrackEvent<'track'>
     error: Event<'error'>
@@ -181,6 +197,10 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
 
         this._registerEvents();
 
+        // Fetched while the factory is surely up, so RTCRtpSender and
+        // RTCRtpReceiver.getCapabilities() don't block later.
+        prefetchCapabilities();
+
         log.debug(`${this._pcId} ctor`);
     }
 
@@ -498,6 +518,74 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
         this.remoteDescription = new RTCSessionDescription(newSdp);
     }
 
+    /**
+     * Adds several remote candidates at once. On Android they are applied in
+     * order in a single native call instead of one round trip each. Resolves
+     * with one entry per candidate: null on success or the Error it failed with.
+     */
+    async addIceCandidates(candidates: any[]): Promise<(Error | null)[]> {
+        if (this.connectionState === 'closed') {
+            throw new Error('Peer Connection is closed');
+        }
+
+        log.debug(`${this._pcId} addIceCandidates ${candidates.length}`);
+
+        const results: (Error | null)[] = new Array(candidates.length).fill(null);
+
+        if (Platform.OS !== 'android') {
+            for (let i = 0; i < candidates.length; i++) {
+                try {
+                    await this.addIceCandidate(candidates[i]);
+                } catch (e) {
+                    results[i] = e as Error;
+                }
+            }
+
+            return results;
+        }
+
+        const toAdd: any[] = [];
+        const indexes: number[] = [];
+
+        candidates.forEach((candidate, i) => {
+            if (!candidate || !candidate.candidate) {
+                // End-of-candidates is not implemented, see addIceCandidate().
+                return;
+            }
+
+            if ((candidate.sdpMLineIndex === null ||
+                 candidate.sdpMLineIndex === undefined) &&
+                (candidate.sdpMid === null ||
+                 candidate.sdpMid === undefined)
+            ) {
+                results[i] = new TypeError('`sdpMLineIndex` and `sdpMid` must not be both null or undefined');
+
+                return;
+            }
+
+            toAdd.push(RTCUtil.deepClone(candidate));
+            indexes.push(i);
+        });
+
+        if (toAdd.length === 0) {
+            return results;
+        }
+
+        const { results: errors, sdp } = await WebRTCModule.peerConnectionAddICECandidates(this._pcId, toAdd);
+
+        errors.forEach((error: string | null, i: number) => {
+            if (error !== null) {
+                results[indexes[i]] = new Error(error);
+            }
+        });
+
+        if (sdp) {
+            this.remoteDescription = new RTCSessionDescription(sdp);
+        }
+
+        return results;
+    }
+
     /**
      * @brief Adds a new track to the {@link RTCPeerConnection},
      * and indicates that it is contained in the specified {@link MediaStream}s.
@@ -631,12 +719,24 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
             throw new Error('Sender does not exist');
         }
 
-        if (existingSender.track === null) {
+        const track = existingSender.track;
+
+        if (track === null) {
             return;
         }
 
-        // Blocking!
-        WebRTCModule.peerConnectionRemoveTrack(this._pcId, sender.id);
+        if (Platform.OS === 'android') {
+            // Track release runs on a different lane than this peer connection,
+            // so releasing the track has to wait until the sender is done with it.
+            const removal = WebRTCModule.peerConnectionRemoveTrackAsync(this._pcId, sender.id)
+                .catch(e => log.error(`${this._pcId} removeTrack failed: ${e}`));
+
+            track._releaseBarrier = track._releaseBarrier
+                ? Promise.all([ track._releaseBarrier, removal ])
+                : removal;
+        } else {
+            WebRTCModule.peerConnectionRemoveTrack(this._pcId, sender.id);
+        }
 
         existingSender._track = null;
 
@@ -680,6 +780,85 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
         }
     }
 
+    /**
+     * Batches trickled ICE candidates: candidates gathered within windowMs of
+     * each other cross the bridge together, with the local description attached
+     * once per batch instead of once per candidate. 'icecandidate' events are
+     * still dispatched one per candidate. Pass 0 to disable. Android only.
+     */
+    setIceCandidateBatching(windowMs: number): void {
+        if (Platform.OS !== 'android') {
+            return;
+        }
+
+        WebRTCModule.peerConnectionSetIceCandidateBatching(this._pcId, windowMs);
+    }
+
+    /**
+     * Starts (or reschedules) native stats sampling: every intervalMs a
+     * 'statssample' event with bitrates, frame rates and packet loss is
+     * dispatched, without a getStats() round trip. Pass 0 to stop. With
+     * `quality` set, each sample also carries a MOS-like score (1 - 4.5) per
+     * inbound track and the reasons it is degraded. Android only.
+     */
+    setStatsSampling(intervalMs: number, options: { quality?: boolean } = {}): void {
+        if (Platform.OS !== 'android') {
+            return;
+        }
+
+        WebRTCModule.peerConnectionSetStatsSampling(this._pcId, intervalMs, options);
+    }
+
+    /**
+     * Like getStats(), but only returns the requested stats types and members.
+     * On Android the filtering (and the optional delta reporting) happens natively,
+     * so the skipped data never crosses the bridge.
+     */
+    async getFilteredStats(options: RTCStatsFilterOptions = {}) {
+        log.debug(`${this._pcId} getFilteredStats`);
+
+        if (Platform.OS === 'android') {
+            const data = await WebRTCModule.peerConnectionGetFilteredStats(this._pcId, options);
+
+            return new Map(JSON.parse(data));
+        }
+
+        const report = await this.getStats();
+        const { fields } = options;
+
+        if (!fields) {
+            return report;
+        }
+
+        const filtered = new Map();
+
+        for (const [ id, stats ] of report) {
+            const selection = fields[stats.type];
+
+            if (!selection) {
+                continue;
+            }
+
+            if (selection === true) {
+                filtered.set(id, stats);
+                continue;
+            }
+
+            const { timestamp, type } = stats;
+            const entry = { timestamp, type, id: stats.id };
+
+            for (const member of selection) {
+                if (member in stats) {
+                    entry[member] = stats[member];
+                }
+            }
+
+            filtered.set(id, entry);
+        }
+
+        return filtered;
+    }
+
     getTransceivers(): RTCRtpTransceiver[] {
         return this._transceivers.map(e => e.transceiver);
     }
@@ -827,6 +1006,39 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
             this.dispatchEvent(new RTCIceCandidateEvent('icecandidate', { candidate }));
         });
 
+        addListener(this, 'peerConnectionGotICECandidates', (ev: any) => {
+            if (ev.pcId !== this._pcId) {
+                return;
+            }
+
+            const sdpInfo = ev.sdp;
+
+            // Can happen when doing a rollback.
+            if (sdpInfo.type && sdpInfo.sdp) {
+                this.localDescription = new RTCSessionDescription(sdpInfo);
+            } else {
+                this.localDescription = null;
+            }
+
+            for (const candidateInfo of ev.candidates) {
+                const candidate = new RTCIceCandidate(candidateInfo);
+
+                this.dispatchEvent(new RTCIceCandidateEvent('icecandidate', { candidate }));
+            }
+        });
+
+        addListener(this, 'peerConnectionStatsSample', (ev: any) => {
+            if (ev.pcId !== this._pcId) {
+                return;
+            }
+
+            const sample = { ...ev };
+
+            delete sample.pcId;
+
+            this.dispatchEvent(new RTCStatsSampleEvent('statssample', { sample }));
+        });
+
         addListener(this, 'peerConnectionIceGatheringChanged', (ev: any) => {
             if (ev.pcId !== this._pcId) {
                 return;
@@ -924,6 +1136,29 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
             }
         }
 
+        if (Platform.OS === 'android') {
+            // Not blocking: the react tag is picked here and the info mirrors
+            // the native defaults. The id of a channel that isn't negotiated
+            // arrives with its first state change; a channel that can't be
+            // created is closed by the native side.
+            const reactTag = RTCUtil.uniqueID();
+
+            WebRTCModule.createDataChannelAsync(this._pcId, reactTag, String(label), dataChannelDict);
+
+            return new RTCDataChannel({
+                peerConnectionId: this._pcId,
+                reactTag,
+                label: String(label),
+                id: dataChannelDict?.id ?? -1,
+                ordered: dataChannelDict?.ordered ?? true,
+                maxPacketLifeTime: -1,
+                maxRetransmits: dataChannelDict?.maxRetransmits ?? -1,
+                protocol: dataChannelDict?.protocol ?? '',
+                negotiated: dataChannelDict?.negotiated ?? false,
+                readyState: 'connecting'
+            });
+        }
+
         const channelInfo = WebRTCModule.createDataChannel(this._pcId, String(label), dataChannelDict);
 
         if (channelInfo === null) {
@@ -951,23 +1186,36 @@ export default class RTCPeerConnection extends EventTarget<RTCPeerConnectionEven
      * Updates transceivers after offer/answer updates if necessary.
      */
     _updateTransceivers(transceiverUpdates, removeStopped = false) {
+        const transceiversById = new Map(this.getTransceivers().map(t => [ t.sender.id, t ]));
+
         for (const update of transceiverUpdates) {
-            const [ transceiver ] = this
-                .getTransceivers()
-                .filter(t => t.sender.id === update.transceiverId);
+            const transceiver = transceiversById.get(update.transceiverId);
 
             if (!transceiver) {
                 continue;
             }
 
+            // Android only reports what changed since the previous update, so
+            // absent fields are left as they are.
             if (update.currentDirection) {
                 transceiver._currentDirection = update.currentDirection;
             }
 
-            transceiver._mid = update.mid;
-            transceiver._stopped = Boolean(update.isStopped);
-            transceiver._sender._rtpParameters = new RTCRtpSendParameters(update.senderRtpParameters);
-            transceiver._receiver._rtpParameters = new RTCRtpReceiveParameters(update.receiverRtpParameters);
+            if ('mid' in update) {
+                transceiver._mid = update.mid;
+            }
+
+            if ('isStopped' in update) {
+                transceiver._stopped = Boolean(update.isStopped);
+            }
+
+            if (update.senderRtpParameters) {
+                transceiver._sender._rtpParameters = new RTCRtpSendParameters(update.senderRtpParameters);
+            }
+
+            if (update.receiverRtpParameters) {
+                transceiver._receiver._rtpParameters = new RTCRtpReceiveParameters(update.receiverRtpParameters);
+            }
         }
 
         if (removeStopped) {
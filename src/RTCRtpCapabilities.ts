@@ -1,5 +1,55 @@
+import { NativeModules, Platform } from 'react-native';
+
 import RTCRtpCodecCapability from './RTCRtpCodecCapability';
 
+const { WebRTCModule } = NativeModules;
+
+type CapabilitiesByKind = { audio: RTCRtpCapabilities | null, video: RTCRtpCapabilities | null };
+
+/**
+ * Capabilities of the live factory, fetched off the JS thread so the static
+ * getCapabilities() calls don't have to block on the native side.
+ */
+let cachedCapabilities: { sender: CapabilitiesByKind, receiver: CapabilitiesByKind } | null = null;
+let cacheGeneration = 0;
+
+/**
+ * Starts filling the capabilities cache, if it isn't filled already. Android only.
+ */
+export function prefetchCapabilities(): void {
+    if (Platform.OS !== 'android' || cachedCapabilities) {
+        return;
+    }
+
+    const generation = cacheGeneration;
+
+    WebRTCModule.rtpGetCapabilities().then(capabilities => {
+        // A factory created or disposed in the meantime makes these stale.
+        if (generation === cacheGeneration) {
+            cachedCapabilities = capabilities;
+        }
+    }, () => {
+        // Callers fall back to the blocking query.
+    });
+}
+
+/**
+ * Drops the cached capabilities, they belong to the factory being replaced.
+ */
+export function invalidateCapabilities(): void {
+    cacheGeneration++;
+    cachedCapabilities = null;
+}
+
+/**
+ * Returns the cached capabilities, or undefined if they haven't been fetched.
+ */
+export function getCachedCapabilities(
+        direction: 'sender' | 'receiver',
+        kind: 'audio' | 'video'): RTCRtpCapabilities | null | undefined {
+    return cachedCapabilities?.[direction][kind];
+}
+
 /**
  * @brief represents codec capabilities for senders and receivers.
  */
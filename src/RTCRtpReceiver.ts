@@ -1,7 +1,7 @@
 import { NativeModules } from 'react-native';
 
 import MediaStreamTrack from './MediaStreamTrack';
-import RTCRtpCapabilities from './RTCRtpCapabilities';
+import RTCRtpCapabilities, { getCachedCapabilities } from './RTCRtpCapabilities';
 import { RTCRtpParametersInit } from './RTCRtpParameters';
 import RTCRtpReceiveParameters from './RTCRtpReceiveParameters';
 
@@ -29,7 +29,7 @@ export default class RTCRtpReceiver {
     }
 
     static getCapabilities(kind: 'audio' | 'video'): RTCRtpCapabilities {
-        return WebRTCModule.receiverGetCapabilities(kind);
+        return getCachedCapabilities('receiver', kind) ?? WebRTCModule.receiverGetCapabilities(kind);
     }
 
     getStats() {
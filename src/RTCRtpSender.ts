@@ -1,7 +1,7 @@
 import { NativeModules } from 'react-native';
 
 import MediaStreamTrack from './MediaStreamTrack';
-import RTCRtpCapabilities from './RTCRtpCapabilities';
+import RTCRtpCapabilities, { getCachedCapabilities } from './RTCRtpCapabilities';
 import RTCRtpSendParameters, { RTCRtpSendParametersInit } from './RTCRtpSendParameters';
 
 const { WebRTCModule } = NativeModules;
@@ -39,7 +39,7 @@ export default class RTCRtpSender {
     }
 
     static getCapabilities(kind: 'audio' | 'video'): RTCRtpCapabilities {
-        return WebRTCModule.senderGetCapabilities(kind);
+        return getCachedCapabilities('sender', kind) ?? WebRTCModule.senderGetCapabilities(kind);
     }
 
     getParameters(): RTCRtpSendParameters {
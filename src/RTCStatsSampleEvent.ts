@@ -0,0 +1,57 @@
+import { Event } from './vendor/event-target-shim';
+
+type RTCStatsSampleDirection = {
+    streams: number;
+    bitrate?: number;
+    frameRate?: number;
+    packetLoss?: number;
+    jitter?: number;
+    frameWidth?: number;
+    frameHeight?: number;
+};
+
+type RTCQualityReason =
+    | 'packetLoss'
+    | 'jitter'
+    | 'roundTripTime'
+    | 'concealment'
+    | 'freezes'
+    | 'framesDropped'
+    | 'lowFrameRate';
+
+export type RTCQualityScore = {
+    score: number;
+    reasons: RTCQualityReason[];
+    tracks: { trackId: string, kind: 'audio' | 'video', score: number, reasons: RTCQualityReason[] }[];
+};
+
+export type RTCStatsSample = {
+    timestamp: number;
+    intervalMs: number;
+    audio: { inbound: RTCStatsSampleDirection, outbound: RTCStatsSampleDirection };
+    video: { inbound: RTCStatsSampleDirection, outbound: RTCStatsSampleDirection };
+    roundTripTime?: number;
+    availableOutgoingBitrate?: number;
+    quality?: RTCQualityScore;
+};
+
+interface IRTCStatsSampleEventInitDict extends Event.EventInit {
+    sample: RTCStatsSample;
+}
+
+/**
+ * @eventClass
+ * This event is fired periodically while native stats sampling is enabled,
+ * see RTCPeerConnection.setStatsSampling(). Bitrates are in bits per second
+ * and packet loss is a percentage of the packets expected in the interval.
+ * @param {'statssample'} type - The type of event.
+ * @param {IRTCStatsSampleEventInitDict} eventInitDict - The event init properties.
+ */
+export default class RTCStatsSampleEvent<TEventType extends 'statssample'> extends Event<TEventType> {
+    /** @eventProperty */
+    sample: RTCStatsSample;
+    constructor(type: TEventType, eventInitDict: IRTCStatsSampleEventInitDict) {
+        super(type, eventInitDict);
+        this.sample = eventInitDict.sample;
+    }
+}
@@ -1,4 +1,6 @@
-import { requireNativeComponent, ViewProps } from 'react-native';
+import { EmitterSubscription, NativeEventEmitter, NativeModules, requireNativeComponent, ViewProps } from 'react-native';
+
+const { WebRTCModule } = NativeModules;
 
 /**
  * Native prop validation was removed from RN in:
@@ -59,6 +61,61 @@ interface RTCVideoViewProps extends ViewProps {
    * zOrder: number
    */
   zOrder?: number;
+
+  /**
+   * Android only. Stops rendering while the view can't be seen: when it or
+   * its window is hidden, when it is scrolled out of view (e.g. out of a
+   * FlatList viewport) or when it is fully transparent. Changes are reported
+   * through {@link addRTCViewVisibilityListener}, so the app can also stop
+   * receiving the video (e.g. by disabling the transceiver or switching to a
+   * lower layer).
+   *
+   * pauseWhenHidden: boolean
+   */
+  pauseWhenHidden?: boolean;
+
+  /**
+   * Android only. The highest frame rate at which the video is rendered,
+   * e.g. 15 for thumbnails. Frames above it are dropped before they are
+   * uploaded to the GPU. 0 (the default) renders every frame.
+   *
+   * maxRenderFps: number
+   */
+  maxRenderFps?: number;
+
+  /**
+   * Android only. Scales (software decoded) video frames much larger than
+   * the view down to the view's size before uploading them to the GPU, so a
+   * small tile of a high-resolution stream costs a fraction of the memory
+   * bandwidth.
+   *
+   * scaleToViewSize: boolean
+   */
+  scaleToViewSize?: boolean;
+}
+
+export interface RTCViewVisibilityEvent {
+  /** The native tag of the view, see findNodeHandle(). */
+  reactTag: number;
+  streamURL?: string;
+  trackId?: string;
+  visible: boolean;
+}
+
+let visibilityEmitter: NativeEventEmitter | null = null;
+
+/**
+ * Android only. Subscribes to visibility changes of RTCViews which have
+ * pauseWhenHidden set.
+ */
+export function addRTCViewVisibilityListener(
+    listener: (event: RTCViewVisibilityEvent) => void
+): EmitterSubscription {
+    if (!visibilityEmitter) {
+        visibilityEmitter = new NativeEventEmitter(WebRTCModule);
+    }
+
+    return visibilityEmitter.addListener('videoViewVisibilityChanged', listener);
 }
 
 export default requireNativeComponent<RTCVideoViewProps>('RTCVideoView');
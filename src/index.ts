@@ -13,7 +13,14 @@ import { audioDeviceModuleEvents } from './AudioDeviceModuleEvents';
 import CallFactory, {
     type CallFactoryOptions,
 } from './CallFactory';
-import { setupNativeEvents } from './EventEmitter';
+import {
+    addExecutorMetricsListener,
+    type ExecutorMetrics,
+    getExecutorMetrics,
+    setEventBatchingEnabled,
+    setExecutorMetricsEnabled,
+    setupNativeEvents,
+} from './EventEmitter';
 import Logger from './Logger';
 import mediaDevices from './MediaDevices';
 import MediaStream from './MediaStream';
@@ -32,7 +39,8 @@ import RTCRtpSendParameters, { type RTCRtpSendParametersInit } from './RTCRtpSen
 import RTCRtpSender from './RTCRtpSender';
 import RTCRtpTransceiver from './RTCRtpTransceiver';
 import RTCSessionDescription from './RTCSessionDescription';
-import RTCView from './RTCView';
+import RTCStatsSampleEvent, { type RTCQualityScore, type RTCStatsSample } from './RTCStatsSampleEvent';
+import RTCView, { addRTCViewVisibilityListener, type RTCViewVisibilityEvent } from './RTCView';
 import ScreenCapturePickerView from './ScreenCapturePickerView';
 
 Logger.enable(`${Logger.ROOT_PREFIX}:*`);
@@ -49,6 +57,8 @@ export {
     RTCSessionDescription,
     RTCCertificate,
     RTCView,
+    addRTCViewVisibilityListener,
+    type RTCViewVisibilityEvent,
     RTCCameraPreviewView,
     ScreenCapturePickerView,
     CallFactory,
@@ -59,6 +69,9 @@ export {
     RTCRtpSender,
     RTCRtpSendParameters,
     RTCErrorEvent,
+    RTCStatsSampleEvent,
+    type RTCStatsSample,
+    type RTCQualityScore,
     RTCAudioSession,
     MediaStream,
     MediaStreamTrack,
@@ -71,6 +84,11 @@ export {
     AudioDeviceModule,
     AudioEngineMuteMode,
     audioDeviceModuleEvents,
+    setEventBatchingEnabled,
+    setExecutorMetricsEnabled,
+    getExecutorMetrics,
+    addExecutorMetricsListener,
+    type ExecutorMetrics,
 };
 
 declare const global: any;